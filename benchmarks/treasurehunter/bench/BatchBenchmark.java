@@ -0,0 +1,50 @@
+package treasurehunter.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import treasurehunter.BatchSimulator;
+
+/**
+ * Benchmarks the struct-of-arrays simulator playing a population of random hunters to the end.
+ * Divide the hunters by the time per population, and multiply by the average turns the
+ * simulator reports, for hunter-steps per second.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchBenchmark {
+    @Param({"n", "h"})
+    public String mode;
+
+    @Param({"16384"})
+    public int hunters;
+
+    private BatchSimulator batch;
+    private long seed;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        batch = new BatchSimulator(hunters, mode, 200, seed++);
+    }
+
+    @Benchmark
+    public long runToEnd() {
+        return batch.runToEnd();
+    }
+}
@@ -0,0 +1,46 @@
+package treasurehunter.bench;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import treasurehunter.GameContext;
+import treasurehunter.GameResult;
+import treasurehunter.NullSink;
+import treasurehunter.OutputSink;
+import treasurehunter.TerminalSink;
+import treasurehunter.TreasureHunter;
+
+/**
+ * Benchmarks a complete scripted game from the welcome prompt to the end.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+    @Param({"null", "terminal"})
+    public String sink;
+
+    private long seed;
+
+    @Benchmark
+    public GameResult scriptedGame() {
+        OutputSink out = sink.equals("null") ? NullSink.INSTANCE : new TerminalSink(OutputStream.nullOutputStream());
+        GameContext context = new GameContext(new ScriptedPlayer("bench", "e"), out, seed++);
+        context.setMaxTurns(200);
+        return new TreasureHunter(context).play();
+    }
+}
@@ -0,0 +1,74 @@
+package treasurehunter.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import treasurehunter.GameContext;
+import treasurehunter.Hunter;
+import treasurehunter.Items;
+import treasurehunter.NullSink;
+
+/**
+ * Benchmarks the Hunter's kit operations and its status line.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HunterBenchmark {
+    private Hunter hunter;
+
+    @Setup
+    public void setUp() {
+        GameContext context = new GameContext(new ScriptedPlayer("bench", "n"), NullSink.INSTANCE, 1);
+        hunter = new Hunter("bench", 100, context);
+        hunter.buyItem(Items.WATER, 2);
+        hunter.buyItem(Items.SHOVEL, 8);
+        hunter.addTreasure("gem");
+    }
+
+    /**
+     * Buys and sells back a rope, topping up the gold so the hunter never runs out.
+     */
+    @Benchmark
+    public boolean buyAndSellItem() {
+        hunter.changeGold(2);
+        return hunter.buyItem(Items.ROPE, 4) & hunter.sellItem(Items.ROPE, 2);
+    }
+
+    /**
+     * The same round trip through the String overloads the shop used to call.
+     */
+    @Benchmark
+    public boolean buyAndSellItemByName() {
+        hunter.changeGold(2);
+        return hunter.buyItem("rope", 4) & hunter.sellItem("rope", 2);
+    }
+
+    @Benchmark
+    public boolean hasItemInKit() {
+        return hunter.hasItemInKit(Items.SHOVEL);
+    }
+
+    @Benchmark
+    public boolean hasItemInKitByName() {
+        return hunter.hasItemInKit("shovel");
+    }
+
+    @Benchmark
+    public String render() {
+        return hunter.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package treasurehunter.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import treasurehunter.GameAction;
+import treasurehunter.GameConfig;
+import treasurehunter.GameSession;
+import treasurehunter.GameState;
+import treasurehunter.MctsPlayer;
+
+/**
+ * Benchmarks one move of the tree search with a fixed number of futures per worker, so the time
+ * per move can be compared with the player's budget. Divide by the futures for the cost of one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MctsBenchmark {
+    @Param({"n", "h"})
+    public String mode;
+
+    @Param({"1", "4"})
+    public int workers;
+
+    @Param({"2000"})
+    public int futures;
+
+    private MctsPlayer player;
+    private GameState state;
+
+    @Setup
+    public void setUp() {
+        GameSession session = new GameSession(new GameConfig("bench", mode, 1));
+        session.step(GameAction.LOOK_FOR_TROUBLE);
+        state = session.capture(1);
+        player = new MctsPlayer("bench", mode, 1, 200);
+        player.setWorkers(workers);
+        player.setIterations(futures);
+        player.setBudgetMillis(60_000);
+    }
+
+    @Benchmark
+    public GameAction decide() {
+        return player.decide(state);
+    }
+}
@@ -0,0 +1,50 @@
+package treasurehunter.bench;
+
+import treasurehunter.GameResult;
+import treasurehunter.Hunter;
+import treasurehunter.Player;
+import treasurehunter.Shop;
+import treasurehunter.Town;
+
+/**
+ * A player that repeats a fixed script: buy a shovel, then look for trouble,
+ * hunt, dig and move on, buying whatever the next terrain needs.
+ */
+class ScriptedPlayer implements Player {
+    private static final String[] SCRIPT = {"b", "l", "h", "d", "l", "b", "m"};
+    private static final String[] PURCHASES = {"shovel", "water", "rope", "machete", "horse", "boots", "boat"};
+
+    private final String name;
+    private final String mode;
+    private int step;
+    private int purchase;
+
+    ScriptedPlayer(String name, String mode) {
+        this.name = name;
+        this.mode = mode;
+    }
+
+    public String chooseName() {
+        return name;
+    }
+
+    public String chooseMode() {
+        return mode;
+    }
+
+    public String chooseAction(Hunter hunter, Town town) {
+        return SCRIPT[step++ % SCRIPT.length];
+    }
+
+    public String chooseItem(Hunter hunter, Shop shop, boolean isBuying) {
+        return PURCHASES[purchase++ % PURCHASES.length];
+    }
+
+    public boolean confirmTrade(String item, int cost, boolean isBuying) {
+        return true;
+    }
+
+    public boolean playAgain(GameResult result) {
+        return false;
+    }
+}
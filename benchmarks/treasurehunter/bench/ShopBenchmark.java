@@ -0,0 +1,54 @@
+package treasurehunter.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import treasurehunter.GameContext;
+import treasurehunter.Items;
+import treasurehunter.NullSink;
+import treasurehunter.Shop;
+
+/**
+ * Benchmarks price lookups in a shop.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShopBenchmark {
+    @Param({"water", "shovel", "sword"})
+    public String item;
+
+    private Shop shop;
+    private int ordinal;
+
+    @Setup
+    public void setUp() {
+        GameContext context = new GameContext(new ScriptedPlayer("bench", "n"), NullSink.INSTANCE, 1);
+        shop = new Shop(0.5, context);
+        ordinal = Items.ordinalOf(item);
+    }
+
+    @Benchmark
+    public int checkMarketPrice() {
+        return shop.checkMarketPrice(item, true) + shop.checkMarketPrice(item, false);
+    }
+
+    @Benchmark
+    public int checkMarketPriceByOrdinal() {
+        return shop.checkMarketPrice(ordinal, true) + shop.checkMarketPrice(ordinal, false);
+    }
+}
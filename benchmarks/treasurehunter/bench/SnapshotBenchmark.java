@@ -0,0 +1,58 @@
+package treasurehunter.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import treasurehunter.GameContext;
+import treasurehunter.NullSink;
+import treasurehunter.TreasureHunter;
+
+/**
+ * Benchmarks saving a game in progress to a buffer and loading it back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotBenchmark {
+    private TreasureHunter game;
+    private ByteBuffer snapshot;
+
+    @Setup
+    public void setUp() {
+        GameContext context = new GameContext(new ScriptedPlayer("bench", "e"), NullSink.INSTANCE, 1);
+        context.setMaxTurns(20);
+        game = new TreasureHunter(context);
+        game.play();
+        snapshot = ByteBuffer.allocate(1024);
+    }
+
+    @Benchmark
+    public int save() {
+        snapshot.clear();
+        game.save(snapshot);
+        return snapshot.position();
+    }
+
+    @Benchmark
+    public int saveAndLoad() {
+        snapshot.clear();
+        game.save(snapshot);
+        snapshot.flip();
+        game.load(snapshot);
+        return snapshot.position();
+    }
+}
@@ -0,0 +1,74 @@
+package treasurehunter.bench;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import treasurehunter.GameContext;
+import treasurehunter.Hunter;
+import treasurehunter.NullSink;
+import treasurehunter.OutputSink;
+import treasurehunter.Shop;
+import treasurehunter.TerminalSink;
+import treasurehunter.Town;
+
+/**
+ * Benchmarks the town actions, both headless and with the news text being built.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TownBenchmark {
+    @Param({"null", "terminal"})
+    public String sink;
+
+    private Hunter hunter;
+    private Town town;
+
+    @Setup
+    public void setUp() {
+        OutputSink out = sink.equals("null") ? NullSink.INSTANCE : new TerminalSink(OutputStream.nullOutputStream());
+        GameContext context = new GameContext(new ScriptedPlayer("bench", "test"), out, 1);
+        context.setMode("test");
+        hunter = new Hunter("bench", 100, context);
+        hunter.setKit();
+        town = new Town(new Shop(0.5, context), 0.4, context);
+        town.hunterArrives(hunter);
+    }
+
+    @Benchmark
+    public String lookForTrouble() {
+        hunter.changeGold(5);
+        town.lookForTrouble();
+        return town.getLatestNews();
+    }
+
+    /**
+     * Leaves town, restocking the kit since the item used may break.
+     */
+    @Benchmark
+    public boolean leaveTown() {
+        hunter.setKit();
+        return town.leaveTown();
+    }
+
+    @Benchmark
+    public int digTreasure() {
+        town.digTreasure();
+        return hunter.getGold();
+    }
+}
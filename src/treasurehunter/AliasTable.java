@@ -0,0 +1,186 @@
+package treasurehunter;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The AliasTable class draws from a fixed set of outcomes with fixed weights, in constant time
+ * however many outcomes there are, using Walker's alias method (as built by Vose). <p>
+ * The table has one column per outcome. Each column holds its own outcome for part of its width
+ * and an alias (another outcome) for the rest, arranged when the table is built so that every
+ * outcome covers exactly its share of the whole table. A draw is one random number: its whole
+ * part picks the column and its fraction picks between the column's outcome and its alias. A draw
+ * reads two array entries and allocates nothing. <p>
+ * The game's terrains and treasures (see Catalog), the gold at stake in a brawl and the gold
+ * found by digging (see Town) are all drawn from alias tables. Run main() to check that each
+ * table draws its outcomes as often as their weights say.
+ */
+
+public class AliasTable {
+    // instance variables
+    private double[] weights;
+    private double[] probability;
+    private int[] alias;
+
+    /**
+     * Builds the table for outcomes 0 to weights.length - 1.
+     *
+     * @param weights How likely each outcome is, relative to the others.
+     * @throws IllegalArgumentException if there are no outcomes, or a weight is negative or they are all 0.
+     */
+    public AliasTable(double... weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("An alias table needs at least one outcome");
+        }
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Weights can't be negative: " + weight);
+            }
+            total += weight;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("At least one weight has to be more than 0");
+        }
+        this.weights = weights.clone();
+        probability = new double[n];
+        alias = new int[n];
+
+        // scale the weights so that an average outcome fills exactly one column
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        // top up each column that is too small with part of an outcome that is too large
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // whatever is left fills its own column, give or take rounding
+        while (largeCount > 0) {
+            int column = large[--largeCount];
+            probability[column] = 1;
+            alias[column] = column;
+        }
+        while (smallCount > 0) {
+            int column = small[--smallCount];
+            probability[column] = 1;
+            alias[column] = column;
+        }
+    }
+
+    /**
+     * Builds a table where every outcome is equally likely.
+     *
+     * @param n How many outcomes there are.
+     * @return The table for outcomes 0 to n - 1.
+     */
+    public static AliasTable uniform(int n) {
+        double[] weights = new double[n];
+        Arrays.fill(weights, 1);
+        return new AliasTable(weights);
+    }
+
+    /**
+     * @return How many outcomes there are.
+     */
+    public int size() {
+        return probability.length;
+    }
+
+    /**
+     * @param outcome One of the outcomes.
+     * @return How likely a draw is to be that outcome.
+     */
+    public double getChance(int outcome) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        return weights[outcome] / total;
+    }
+
+    /**
+     * Draws an outcome.
+     *
+     * @param random Where the random number comes from; one nextDouble() is used.
+     * @return The outcome.
+     */
+    public int sample(SplittableRandom random) {
+        return sample(random.nextDouble());
+    }
+
+    /**
+     * Draws an outcome from a random number that has already been drawn.
+     *
+     * @param u A random number from 0 up to 1.
+     * @return The outcome.
+     */
+    public int sample(double u) {
+        double x = u * probability.length;
+        int column = Math.min((int) x, probability.length - 1);
+        return x - column < probability[column] ? column : alias[column];
+    }
+
+    /**
+     * Draws from each of the game's tables and compares how often each outcome came up with how
+     * often it should have, as Pearson's chi-squared statistic.
+     *
+     * @param args Optional: draws per table and seed.
+     */
+    public static void main(String[] args) {
+        int draws = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        Catalog catalog = Catalog.get();
+        check("terrain", catalog.getTerrainTable(), draws, seed);
+        check("treasure", catalog.getTreasureTable(), draws, seed);
+        check("brawl gold", Town.BRAWL_GOLD, draws, seed);
+        check("dig gold", Town.DIG_GOLD, draws, seed);
+    }
+
+    private static void check(String name, AliasTable table, int draws, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] counts = new long[table.size()];
+        long start = System.nanoTime();
+        for (int i = 0; i < draws; i++) {
+            counts[table.sample(random)]++;
+        }
+        double nanos = (double) (System.nanoTime() - start) / draws;
+
+        double chiSquared = 0;
+        int degrees = -1;
+        for (int outcome = 0; outcome < counts.length; outcome++) {
+            double expected = table.getChance(outcome) * draws;
+            if (expected > 0) {
+                chiSquared += (counts[outcome] - expected) * (counts[outcome] - expected) / expected;
+                degrees++;
+            } else if (counts[outcome] > 0) {
+                chiSquared = Double.POSITIVE_INFINITY;
+            }
+        }
+        // for many draws the statistic is about normal, with mean and variance set by the degrees of freedom
+        double sigmas = degrees > 0 ? (chiSquared - degrees) / Math.sqrt(2.0 * degrees) : 0;
+        System.out.printf("%-10s %2d outcomes: chi-squared %.1f on %d degrees of freedom (%+.1f sigma), %.1f ns a draw%n",
+                name, counts.length, chiSquared, degrees, sigmas, nanos);
+    }
+}
@@ -0,0 +1,84 @@
+package treasurehunter;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * The BatchGame class plays a session from a command script (see CommandScript) instead of
+ * the keyboard. <p>
+ * The script can be a file or standard input ("-"), so a bot can pipe its commands straight in:
+ * <pre>
+ * echo 'bob n; repeat 50 { l; h; m }; x n' | java treasurehunter.BatchGame - 42
+ * </pre>
+ * A turn limit ends games that a script's loop would otherwise play forever:
+ * <pre>
+ * echo 'bob n; loop { l; m }' | java treasurehunter.BatchGame - 7 200 -q
+ * </pre>
+ */
+
+public class BatchGame {
+    private BatchGame() {
+    }
+
+    /**
+     * Plays a session from a script.
+     *
+     * @param script The script.
+     * @param out Where the game prints to; answers are echoed there too.
+     * @param seed The seed for the session's random numbers.
+     * @return How the last game of the session ended.
+     */
+    public static GameResult play(CommandScript script, OutputSink out, long seed) {
+        return play(script, out, seed, 0);
+    }
+
+    /**
+     * Plays a session from a script, with each game ending after at most the given number of turns.
+     *
+     * @param script The script.
+     * @param out Where the game prints to; answers are echoed there too.
+     * @param seed The seed for the session's random numbers.
+     * @param maxTurns The turn limit (see GameContext.setMaxTurns()), or 0 for none.
+     * @return How the last game of the session ended.
+     */
+    public static GameResult play(CommandScript script, OutputSink out, long seed, int maxTurns) {
+        GameContext context = new GameContext(new ScriptPlayer(script, out), out, seed);
+        context.setMaxTurns(maxTurns);
+        return new TreasureHunter(context).playSession();
+    }
+
+    /**
+     * @param args The script file or "-" for standard input, optionally the seed and a turn
+     *             limit, and "-q" to print only how the session ended.
+     * @throws IOException if the script can't be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("usage: BatchGame <script file|-> [seed [max turns]] [-q]");
+            return;
+        }
+        CommandScript script = args[0].equals("-") ? new CommandScript(System.in) : CommandScript.open(Paths.get(args[0]));
+        long seed = 1;
+        int maxTurns = 0;
+        boolean quiet = false;
+        int numbers = 0;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("-q")) {
+                quiet = true;
+            } else if (numbers++ == 0) {
+                seed = Long.parseLong(args[i]);
+            } else {
+                maxTurns = Integer.parseInt(args[i]);
+            }
+        }
+        OutputSink out = quiet ? NullSink.INSTANCE : TerminalSink.forConsole();
+
+        long start = System.nanoTime();
+        GameResult result = play(script, out, seed, maxTurns);
+        double millis = (System.nanoTime() - start) / 1e6;
+        out.flush();
+
+        System.out.println();
+        System.out.printf("%s (played in %.2f ms)%n", result, millis);
+    }
+}
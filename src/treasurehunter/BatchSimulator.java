@@ -0,0 +1,392 @@
+package treasurehunter;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * The BatchSimulator class plays a whole population of hunters at once, for experiments too big
+ * for one object graph per game (see Simulation). <p>
+ * Every hunter is a row across primitive columns: gold, kit and found treasures as bitmasks, the
+ * current town's terrain, treasure and flags, and the turns played. There are no Hunter, Town,
+ * Shop or Terrain objects and no strings. Each tick every hunter still playing takes one action
+ * chosen the way RandomPlayer chooses it (buy, sell, move, look for trouble, hunt or dig), played
+ * by the same rules as Shop, Town.leaveTown(), Town.lookForTrouble(), Town.huntForTreasure() and
+ * Town.digTreasure(), with the same Catalog content and AliasTables. <p>
+ * The rows are split into chunks small enough to stay in cache, and the chunks are played in
+ * parallel. Hunters never meet, so a chunk plays all of a run's ticks before the next chunk is
+ * loaded, which gives the same games as playing tick by tick across the whole population. Each
+ * chunk has its own generator split from the master seed, so a seed always plays the same games
+ * however many cores there are.
+ */
+
+public class BatchSimulator {
+    // constants
+    private static final int CHUNK = 1024;
+
+    private static final byte TOUGH = 1;
+    private static final byte SEARCHED = 2;
+    private static final byte DUG = 4;
+    private static final byte WON = 8;
+    private static final byte LOST = 16;
+    private static final byte QUIT = 32;
+    private static final byte DONE = WON | LOST | QUIT;
+
+    // the actions, in RandomPlayer's order
+    private static final int BUY = 0;
+    private static final int SELL = 1;
+    private static final int MOVE = 2;
+    private static final int TROUBLE = 3;
+    private static final int HUNT = 4;
+    private static final int DIG = 5;
+    private static final int ACTIONS = 6;
+
+    // the rules for the mode
+    private boolean easyMode;
+    private boolean samuraiMode;
+    private double toughness;
+    private int maxTurns;
+    private int kitCapacity;
+    private int[] buyPrices;
+    private int[] sellPrices;
+    private int[] shopItems;
+    private int[] terrainItems;
+    private int[] treasureBits;
+    private int allTreasures;
+    private AliasTable terrainTable;
+    private AliasTable treasureTable;
+
+    // the hunters, one row each
+    private int hunters;
+    private int[] gold;
+    private long[] kit;
+    private int[] treasures;
+    private byte[] terrain;
+    private byte[] townTreasure;
+    private byte[] flags;
+    private int[] turns;
+
+    // one generator and one tally per chunk
+    private SplittableRandom[] randoms;
+    private SimulationResults[] results;
+
+    /**
+     * Starts a population of hunters, each in their first town.
+     *
+     * @param hunters How many hunters to play.
+     * @param mode The difficulty, as answered to the mode prompt.
+     * @param maxTurns The most turns a game may last before it counts as a quit.
+     * @param seed The master seed the games are seeded from.
+     */
+    public BatchSimulator(int hunters, String mode, int maxTurns, long seed) {
+        if (maxTurns < 1) {
+            throw new IllegalArgumentException("A batch needs a turn limit");
+        }
+        Catalog catalog = Catalog.get();
+        if (catalog.getTreasureCount() > 31 || catalog.getTerrains().length > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("The catalog has too many treasures or terrains for a batch");
+        }
+        GameContext rules = new GameContext(null, NullSink.INSTANCE, seed);
+        rules.setMode(mode);
+        easyMode = rules.getEasyMode();
+        samuraiMode = rules.getSamuraiMode();
+        double markdown = rules.getHardMode() ? 0.25 : 0.50;
+        toughness = rules.getHardMode() ? 0.75 : 0.4;
+        this.maxTurns = maxTurns;
+        kitCapacity = catalog.getKitCapacity(samuraiMode);
+
+        // the shop's base prices, and the items RandomPlayer picks from: everything but the sword
+        buyPrices = catalog.getCosts();
+        sellPrices = catalog.getSellPrices(markdown);
+        shopItems = new int[catalog.getItemCount() - 1];
+        for (int item = 0, i = 0; item < catalog.getItemCount(); item++) {
+            if (item != Items.SWORD) {
+                shopItems[i++] = item;
+            }
+        }
+        Terrain[] terrains = catalog.getTerrains();
+        terrainItems = new int[terrains.length];
+        for (int t = 0; t < terrains.length; t++) {
+            terrainItems[t] = terrains[t].getNeededItemOrdinal();
+        }
+        treasureBits = new int[catalog.getTreasureCount()];
+        for (int t = 0; t < treasureBits.length; t++) {
+            if (catalog.isValuable(catalog.getTreasure(t))) {
+                treasureBits[t] = 1 << t;
+                allTreasures |= 1 << t;
+            }
+        }
+        terrainTable = catalog.getTerrainTable();
+        treasureTable = catalog.getTreasureTable();
+
+        this.hunters = hunters;
+        gold = new int[hunters];
+        kit = new long[hunters];
+        treasures = new int[hunters];
+        terrain = new byte[hunters];
+        townTreasure = new byte[hunters];
+        flags = new byte[hunters];
+        turns = new int[hunters];
+
+        int chunks = (hunters + CHUNK - 1) / CHUNK;
+        randoms = new SplittableRandom[chunks];
+        results = new SimulationResults[chunks];
+        SplittableRandom master = new SplittableRandom(seed);
+        int startGold = rules.getTestMode() ? 100 : easyMode ? 20 : 10;
+        long startKit = 0;
+        if (rules.getTestMode()) {
+            for (int i = 0; i < shopItems.length && i < kitCapacity; i++) {
+                startKit |= 1L << shopItems[i];
+            }
+        }
+        for (int c = 0; c < chunks; c++) {
+            randoms[c] = master.split();
+            results[c] = new SimulationResults();
+            for (int h = c * CHUNK; h < Math.min(hunters, (c + 1) * CHUNK); h++) {
+                gold[h] = startGold;
+                kit[h] = startKit;
+                enterTown(h, randoms[c]);
+            }
+        }
+    }
+
+    // accessors
+    public int getHunters() {
+        return hunters;
+    }
+
+    public int getGold(int hunter) {
+        return gold[hunter];
+    }
+
+    public int getTurns(int hunter) {
+        return turns[hunter];
+    }
+
+    public boolean isDone(int hunter) {
+        return (flags[hunter] & DONE) != 0;
+    }
+
+    /**
+     * @return The games that have finished so far.
+     */
+    public SimulationResults getResults() {
+        SimulationResults total = new SimulationResults();
+        for (SimulationResults chunk : results) {
+            total.merge(chunk);
+        }
+        return total;
+    }
+
+    /**
+     * Plays one action for every hunter still playing.
+     */
+    public void tick() {
+        run(1);
+    }
+
+    /**
+     * Plays ticks, chunk by chunk on every core.
+     *
+     * @param ticks How many actions each hunter still playing takes.
+     * @return How many hunter-steps were played.
+     */
+    public long run(int ticks) {
+        return IntStream.range(0, randoms.length).parallel()
+                .mapToLong(c -> runChunk(c, ticks))
+                .sum();
+    }
+
+    /**
+     * Plays every game to the end: a win, a loss, or the turn limit.
+     *
+     * @return How many hunter-steps were played.
+     */
+    public long runToEnd() {
+        return run(maxTurns);
+    }
+
+    /**
+     * Plays ticks for one chunk of hunters.
+     */
+    private long runChunk(int chunk, int ticks) {
+        SplittableRandom random = randoms[chunk];
+        SimulationResults tally = results[chunk];
+        int from = chunk * CHUNK;
+        int to = Math.min(hunters, from + CHUNK);
+        long steps = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int h = from; h < to; h++) {
+                if ((flags[h] & DONE) != 0) {
+                    continue;
+                }
+                step(h, random);
+                steps++;
+                turns[h]++;
+                if (treasures[h] == allTreasures) {
+                    finish(h, WON, tally);
+                } else if ((flags[h] & LOST) != 0) {
+                    finish(h, LOST, tally);
+                } else if (turns[h] >= maxTurns) {
+                    finish(h, QUIT, tally);
+                }
+            }
+        }
+        return steps;
+    }
+
+    private void finish(int h, byte outcome, SimulationResults tally) {
+        flags[h] |= outcome;
+        tally.add(outcome == WON ? GameResult.Outcome.WON : outcome == LOST ? GameResult.Outcome.LOST : GameResult.Outcome.QUIT,
+                turns[h], gold[h]);
+    }
+
+    /**
+     * Plays one action for one hunter.
+     */
+    private void step(int h, SplittableRandom random) {
+        switch (random.nextInt(ACTIONS)) {
+            case BUY:
+                buy(h, shopItems[random.nextInt(shopItems.length)]);
+                break;
+            case SELL:
+                sell(h, shopItems[random.nextInt(shopItems.length)]);
+                break;
+            case MOVE:
+                move(h, random);
+                break;
+            case TROUBLE:
+                lookForTrouble(h, random);
+                break;
+            case HUNT:
+                hunt(h);
+                break;
+            default:
+                dig(h, random);
+                break;
+        }
+    }
+
+    /**
+     * Shop.enter() buying, with Hunter.buyItem().
+     */
+    private void buy(int h, int item) {
+        long items = kit[h];
+        long bit = 1L << item;
+        boolean hasSword = (items & 1L << Items.SWORD) != 0;
+        int cost = buyPrices[item];
+        if (!hasSword && !samuraiMode && cost == 0) {
+            return;
+        }
+        if ((items & bit) == 0 && Long.bitCount(items) >= kitCapacity) {
+            // no room, so nothing is paid
+            return;
+        }
+        if (hasSword || item == Items.SWORD) {
+            // the sword gets the item for nothing
+        } else if (cost == 0 || gold[h] < cost || (items & bit) != 0) {
+            return;
+        } else {
+            gold[h] -= cost;
+        }
+        kit[h] = items | bit;
+    }
+
+    /**
+     * Shop.enter() selling, with Hunter.sellItem().
+     */
+    private void sell(int h, int item) {
+        int price = sellPrices[item];
+        if (price > 0 && (kit[h] & 1L << item) != 0) {
+            gold[h] += price;
+            kit[h] &= ~(1L << item);
+        }
+    }
+
+    /**
+     * Town.leaveTown(), then a new town.
+     */
+    private void move(int h, SplittableRandom random) {
+        int item = terrainItems[terrain[h]];
+        if ((kit[h] & 1L << item) == 0) {
+            return;
+        }
+        if (random.nextDouble() < 0.5 && !easyMode) {
+            kit[h] &= ~(1L << item);
+        }
+        enterTown(h, random);
+    }
+
+    /**
+     * Builds the hunter's new town: its terrain, toughness and treasure, as Town's constructor does.
+     */
+    private void enterTown(int h, SplittableRandom random) {
+        terrain[h] = (byte) terrainTable.sample(random);
+        byte townFlags = (byte) (flags[h] & DONE);
+        if (random.nextDouble() < toughness) {
+            townFlags |= TOUGH;
+        }
+        flags[h] = townFlags;
+        townTreasure[h] = (byte) treasureTable.sample(random);
+    }
+
+    /**
+     * Town.lookForTrouble().
+     */
+    private void lookForTrouble(int h, SplittableRandom random) {
+        double noTroubleChance = (flags[h] & TOUGH) != 0 ? 0.66 : 0.33;
+        int easyModeWinChance = random.nextInt(10 + 1) - 1;
+        if (random.nextDouble() > noTroubleChance) {
+            return;
+        }
+        int goldDiff = Town.BRAWL_GOLD.sample(random) + 1;
+        if ((kit[h] & 1L << Items.SWORD) != 0 || random.nextDouble() > noTroubleChance || easyModeWinChance < 8) {
+            gold[h] += goldDiff;
+        } else if (goldDiff > gold[h]) {
+            flags[h] |= LOST;
+        } else {
+            gold[h] -= goldDiff;
+        }
+    }
+
+    /**
+     * Town.huntForTreasure(), with Hunter.addTreasure().
+     */
+    private void hunt(int h) {
+        if ((flags[h] & SEARCHED) == 0) {
+            flags[h] |= SEARCHED;
+            treasures[h] |= treasureBits[townTreasure[h]];
+        }
+    }
+
+    /**
+     * TreasureHunter's dig command, with Town.digTreasure().
+     */
+    private void dig(int h, SplittableRandom random) {
+        if ((flags[h] & DUG) == 0 && (kit[h] & 1L << Items.SHOVEL) != 0) {
+            flags[h] |= DUG;
+            gold[h] += Town.DIG_GOLD.sample(random);
+        }
+    }
+
+    /**
+     * Plays a population to the end and reports the results and the speed.
+     *
+     * @param args Optional: number of hunters, mode, turn limit and seed.
+     */
+    public static void main(String[] args) {
+        int hunters = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String mode = args.length > 1 ? args[1] : "n";
+        int maxTurns = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+
+        long start = System.nanoTime();
+        BatchSimulator batch = new BatchSimulator(hunters, mode, maxTurns, seed);
+        long steps = batch.runToEnd();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("seed " + seed + ": " + batch.getResults());
+        System.out.printf("%.2f s, %.1fM hunter-steps/s (%.1fM per core)%n",
+                seconds, steps / seconds / 1e6, steps / seconds / 1e6 / cores);
+    }
+}
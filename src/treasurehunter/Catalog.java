@@ -0,0 +1,404 @@
+package treasurehunter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.SplittableRandom;
+
+/**
+ * The Catalog class holds the game's content: the items and their prices, the terrains and how
+ * common they are, the treasures, and how many items a hunter can carry. <p>
+ * The content is read once, the first time it is needed, from the catalog.txt that comes with
+ * the game, or from the file named by the treasurehunter.catalog system property. It is then
+ * compiled into tables that never change: item names indexed by ordinal (see Items), price
+ * arrays that every shop with base prices shares, and one Terrain instance per terrain, which
+ * every town surrounded by it shares. Building a town allocates no terrain at all. Terrains and
+ * treasures are drawn from AliasTables, so a draw costs the same however many there are. <p>
+ * Adding an item, terrain or treasure only takes a line in the catalog file. Each line is a
+ * keyword followed by its values, and # starts a comment:
+ * <pre>
+ * item shovel 8 Shovel(SALE!!!)      name, price, shop label
+ * terrain Marsh boots 0.2            name, item needed to cross, weight
+ * treasure dust 1 worthless          name, weight, and whether it counts towards a win
+ * kit samurai 8                      mode (normal or samurai), capacity
+ * </pre>
+ */
+
+public class Catalog {
+    // constants
+    public static final String PROPERTY = "treasurehunter.catalog";
+    private static final String DEFAULT_RESOURCE = "catalog.txt";
+    private static final int MAX_ITEMS = 64;
+
+    // instance variables
+    private String[] itemNames;
+    private String[] labels;
+    private int[] costs;
+    private HashMap<String, Integer> ordinals;
+    private Terrain[] terrains;
+    private AliasTable terrainTable;
+    private String[] treasures;
+    private AliasTable treasureTable;
+    private boolean[] valuable;
+    private int winningTreasures;
+    private int kitCapacity;
+    private int samuraiKitCapacity;
+    private boolean bundled;
+
+    // sell price tables for the markdowns in use, built on first use and then shared
+    private volatile SellPrices sellPrices;
+
+    /**
+     * A sell price table for one markdown, chained to the tables for other markdowns.
+     */
+    private static class SellPrices {
+        private double markdown;
+        private int[] prices;
+        private SellPrices next;
+
+        SellPrices(double markdown, int[] prices, SellPrices next) {
+            this.markdown = markdown;
+            this.prices = prices;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Loads the catalog the first time it is asked for.
+     */
+    private static class Holder {
+        private static final Catalog INSTANCE = loadDefault();
+    }
+
+    /**
+     * @return The game's catalog.
+     */
+    public static Catalog get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Reads the catalog file named by the system property, or the one that comes with the game.
+     */
+    private static Catalog loadDefault() {
+        String file = System.getProperty(PROPERTY);
+        try (InputStream in = file != null ? Files.newInputStream(Paths.get(file))
+                : Catalog.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("The game's " + DEFAULT_RESOURCE + " is missing");
+            }
+            Catalog catalog = parse(in);
+            catalog.bundled = file == null;
+            return catalog;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read the catalog " + file, e);
+        }
+    }
+
+    /**
+     * Reads and checks a catalog.
+     *
+     * @param in The catalog file.
+     * @return The catalog.
+     * @throws IOException if the catalog can't be read.
+     * @throws IllegalArgumentException if the catalog has a mistake in it.
+     */
+    public static Catalog parse(InputStream in) throws IOException {
+        ArrayList<String> names = new ArrayList<>();
+        ArrayList<String> labels = new ArrayList<>();
+        ArrayList<Integer> costs = new ArrayList<>();
+        ArrayList<String[]> terrainLines = new ArrayList<>();
+        ArrayList<String> treasures = new ArrayList<>();
+        ArrayList<Boolean> valuable = new ArrayList<>();
+        ArrayList<Double> treasureWeights = new ArrayList<>();
+        int kitCapacity = 0;
+        int samuraiKitCapacity = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            String[] words = line.trim().split("\\s+", 4);
+            if (words[0].isEmpty()) {
+                continue;
+            }
+            try {
+                switch (words[0]) {
+                    case "item":
+                        need(words, 3);
+                        if (names.contains(words[1].toLowerCase())) {
+                            throw new IllegalArgumentException("there is already an item called " + words[1]);
+                        }
+                        names.add(words[1].toLowerCase());
+                        costs.add(Integer.parseInt(words[2]));
+                        labels.add(words.length > 3 ? words[3].trim() : words[1]);
+                        break;
+                    case "terrain":
+                        need(words, 4);
+                        terrainLines.add(new String[] {words[1], words[2].toLowerCase(), words[3], Integer.toString(lineNumber)});
+                        break;
+                    case "treasure":
+                        need(words, 3);
+                        treasures.add(words[1]);
+                        treasureWeights.add(Double.parseDouble(words[2]));
+                        valuable.add(!(words.length > 3 && words[3].trim().equals("worthless")));
+                        break;
+                    case "kit":
+                        need(words, 3);
+                        if (words[1].equals("samurai")) {
+                            samuraiKitCapacity = Integer.parseInt(words[2]);
+                        } else if (words[1].equals("normal")) {
+                            kitCapacity = Integer.parseInt(words[2]);
+                        } else {
+                            throw new IllegalArgumentException("a kit is for normal or samurai, not " + words[1]);
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown keyword " + words[0]);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Catalog line " + lineNumber + ": not a number: " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Catalog line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        return new Catalog(names, labels, costs, terrainLines, treasures, treasureWeights, valuable, kitCapacity, samuraiKitCapacity);
+    }
+
+    private static void need(String[] words, int count) {
+        if (words.length < count) {
+            throw new IllegalArgumentException(words[0] + " needs " + (count - 1) + " values");
+        }
+    }
+
+    private Catalog(ArrayList<String> names, ArrayList<String> labels, ArrayList<Integer> costs, ArrayList<String[]> terrainLines,
+                    ArrayList<String> treasures, ArrayList<Double> treasureWeights, ArrayList<Boolean> valuable,
+                    int kitCapacity, int samuraiKitCapacity) {
+        if (names.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("A catalog has at most " + MAX_ITEMS + " items");
+        }
+        if (!names.contains("shovel") || !names.contains("sword")) {
+            throw new IllegalArgumentException("A catalog needs a shovel and a sword");
+        }
+        itemNames = names.toArray(new String[0]);
+        this.labels = labels.toArray(new String[0]);
+        this.costs = new int[itemNames.length];
+        ordinals = new HashMap<>();
+        for (int item = 0; item < itemNames.length; item++) {
+            this.costs[item] = costs.get(item);
+            ordinals.put(itemNames[item], item);
+        }
+
+        if (terrainLines.isEmpty()) {
+            throw new IllegalArgumentException("A catalog needs at least one terrain");
+        }
+        terrains = new Terrain[terrainLines.size()];
+        double[] terrainWeights = new double[terrains.length];
+        for (int t = 0; t < terrains.length; t++) {
+            String[] terrain = terrainLines.get(t);
+            Integer item = ordinals.get(terrain[1]);
+            if (item == null) {
+                throw new IllegalArgumentException("Catalog line " + terrain[3] + ": no item called " + terrain[1]);
+            }
+            terrains[t] = new Terrain(terrain[0], terrain[1], item);
+            terrainWeights[t] = Double.parseDouble(terrain[2]);
+        }
+        terrainTable = new AliasTable(terrainWeights);
+
+        this.treasures = treasures.toArray(new String[0]);
+        this.valuable = new boolean[this.treasures.length];
+        double[] weights = new double[this.treasures.length];
+        for (int t = 0; t < this.treasures.length; t++) {
+            weights[t] = treasureWeights.get(t);
+            this.valuable[t] = valuable.get(t);
+            winningTreasures += this.valuable[t] ? 1 : 0;
+        }
+        if (winningTreasures == 0) {
+            throw new IllegalArgumentException("A catalog needs at least one treasure that isn't worthless");
+        }
+        treasureTable = new AliasTable(weights);
+
+        if (kitCapacity < 1 || samuraiKitCapacity < 1) {
+            throw new IllegalArgumentException("A catalog needs a kit size for normal and samurai hunters");
+        }
+        this.kitCapacity = kitCapacity;
+        this.samuraiKitCapacity = samuraiKitCapacity;
+    }
+
+    // accessors
+    public int getItemCount() {
+        return itemNames.length;
+    }
+
+    /**
+     * @param name An item's name in lowercase.
+     * @return The item's ordinal, or Items.NONE if there is no such item.
+     */
+    public int ordinalOf(String name) {
+        Integer ordinal = ordinals.get(name);
+        return ordinal == null ? Items.NONE : ordinal;
+    }
+
+    public String getItemName(int item) {
+        return itemNames[item];
+    }
+
+    /**
+     * @param item An item's ordinal.
+     * @return How the shop lists the item.
+     */
+    public String getLabel(int item) {
+        return labels[item];
+    }
+
+    /**
+     * @param item An item's ordinal.
+     * @return The item's base price, or 0 if it isn't for sale.
+     */
+    public int getCost(int item) {
+        return costs[item];
+    }
+
+    /**
+     * @return The base prices, indexed by item ordinal; shared, so never change them.
+     */
+    int[] getCosts() {
+        return costs;
+    }
+
+    /**
+     * Works out what a shop pays for each item at base prices, once per markdown.
+     *
+     * @param markdown The shop's markdown.
+     * @return The sell prices, indexed by item ordinal; shared, so never change them.
+     */
+    int[] getSellPrices(double markdown) {
+        for (SellPrices table = sellPrices; table != null; table = table.next) {
+            if (table.markdown == markdown) {
+                return table.prices;
+            }
+        }
+        int[] prices = new int[costs.length];
+        for (int item = 0; item < costs.length; item++) {
+            prices[item] = (int) (costs[item] * markdown);
+        }
+        // two threads may both build a table; either one is right
+        sellPrices = new SellPrices(markdown, prices, sellPrices);
+        return prices;
+    }
+
+    /**
+     * @return The terrains, in the order of the catalog.
+     */
+    public Terrain[] getTerrains() {
+        return terrains.clone();
+    }
+
+    /**
+     * Picks the terrain around a town.
+     *
+     * @param random The random numbers the town is drawn from.
+     * @return The terrain, drawn by its weight.
+     */
+    public Terrain drawTerrain(SplittableRandom random) {
+        return terrains[terrainTable.sample(random)];
+    }
+
+    /**
+     * @return The table terrains are drawn from, by their order in the catalog.
+     */
+    public AliasTable getTerrainTable() {
+        return terrainTable;
+    }
+
+    /**
+     * @param name A terrain's name.
+     * @return The terrain, or null if there is no such terrain.
+     */
+    public Terrain getTerrain(String name) {
+        for (Terrain terrain : terrains) {
+            if (terrain.getTerrainName().equals(name)) {
+                return terrain;
+            }
+        }
+        return null;
+    }
+
+    public int getTreasureCount() {
+        return treasures.length;
+    }
+
+    public String getTreasure(int treasure) {
+        return treasures[treasure];
+    }
+
+    /**
+     * Picks the treasure hidden in a town.
+     *
+     * @param random The random numbers the town is drawn from.
+     * @return The treasure, drawn by its weight.
+     */
+    public String drawTreasure(SplittableRandom random) {
+        return treasures[treasureTable.sample(random)];
+    }
+
+    /**
+     * @return The table treasures are drawn from, by their order in the catalog.
+     */
+    public AliasTable getTreasureTable() {
+        return treasureTable;
+    }
+
+    /**
+     * @param treasure A treasure's name.
+     * @return true if finding it counts towards winning.
+     */
+    public boolean isValuable(String treasure) {
+        for (int t = 0; t < treasures.length; t++) {
+            if (treasures[t].equals(treasure)) {
+                return valuable[t];
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return How many treasures a hunter has to find to win.
+     */
+    public int getWinningTreasureCount() {
+        return winningTreasures;
+    }
+
+    /**
+     * @param samurai Whether the hunter is playing samurai mode.
+     * @return The most items the hunter can carry.
+     */
+    public int getKitCapacity(boolean samurai) {
+        return samurai ? samuraiKitCapacity : kitCapacity;
+    }
+
+    /**
+     * @return true if this is the catalog.txt that comes with the game, rather than one named by the system property.
+     */
+    public boolean isBundled() {
+        return bundled;
+    }
+
+    public String toString() {
+        return itemNames.length + " items, " + terrains.length + " terrains, " + treasures.length + " treasures: "
+                + Arrays.toString(itemNames);
+    }
+}
@@ -1,3 +1,5 @@
+package treasurehunter;
+
 public class Colors {
     public static final String RESET = "\033[0m";      // Reset
     public static final String BLACK = "\033[0;30m";   // BLACK
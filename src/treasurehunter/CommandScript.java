@@ -0,0 +1,323 @@
+package treasurehunter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The CommandScript class reads the answers for a game from a script, one word at a time
+ * (see ScriptPlayer). <p>
+ * A script is the answers to the game's prompts, in order, separated by spaces, newlines or
+ * semicolons. Semicolons are only there to group a turn's answers for the reader, so
+ * "b rope y; m; h; d" is a buy (action, item, confirmation) followed by three more actions.
+ * Text in double quotes is one answer, and # starts a comment that runs to the end of the line.
+ * Two constructs repeat part of a script:
+ * <pre>
+ * repeat 20 { l; h }     the block 20 times
+ * loop { l; m }          the block until the game stops asking
+ * </pre>
+ * Blocks can be nested. The game only stops asking when the session ends, so a loop needs a
+ * game that ends: this one never hunts, so it can never win, and once the hunter has 10 gold
+ * it can't die either. Give it a turn limit (see BatchGame and GameContext.setMaxTurns()). <p>
+ * The script is read through a channel with one 8K buffer and split into words by hand, with no
+ * regular expressions or per-line strings. Only the blocks being repeated are kept in memory, so a
+ * bot can stream an endless script into a game.
+ */
+
+public class CommandScript {
+    // constants
+    private static final int BUFFER_SIZE = 8192;
+    private static final int FOREVER = -1;
+
+    // instance variables
+    private ReadableByteChannel in;
+    private ByteBuffer buffer;
+    private boolean endOfInput;
+    private int line;
+    private byte[] word;
+    private boolean quoted;
+
+    // the blocks being repeated, innermost last
+    private ArrayList<Block> running;
+
+    /**
+     * A repeated block: its answers, and the blocks nested in it.
+     */
+    private static class Block {
+        private int count;
+        private Object[] body;
+        private int position;
+        private int remaining;
+
+        Block(int count, Object[] body) {
+            this.count = count;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Opens a script file.
+     *
+     * @param path The script.
+     * @return The script, positioned at its first answer.
+     * @throws IOException if the file can't be opened.
+     */
+    public static CommandScript open(Path path) throws IOException {
+        return new CommandScript(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * @param in Where the script is read from, such as standard input.
+     */
+    public CommandScript(InputStream in) {
+        this(Channels.newChannel(in));
+    }
+
+    /**
+     * @param script The whole script.
+     */
+    public CommandScript(String script) {
+        this(new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param in Where the script is read from.
+     */
+    public CommandScript(ReadableByteChannel in) {
+        this.in = in;
+        buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+        line = 1;
+        word = new byte[64];
+        running = new ArrayList<>();
+    }
+
+    /**
+     * Reads the next answer, running through repeated blocks.
+     *
+     * @return The answer, or null at the end of the script.
+     * @throws IllegalArgumentException if the script doesn't follow the grammar.
+     * @throws UncheckedIOException if the script can't be read.
+     */
+    public String next() {
+        while (!running.isEmpty()) {
+            Block block = running.get(running.size() - 1);
+            if (block.position < block.body.length) {
+                Object element = block.body[block.position++];
+                if (element instanceof String) {
+                    return (String) element;
+                }
+                start((Block) element);
+            } else if (block.count == FOREVER || --block.remaining > 0) {
+                block.position = 0;
+            } else {
+                running.remove(running.size() - 1);
+            }
+        }
+
+        String token = readToken();
+        if (token != null && !quoted && (token.equals("repeat") || token.equals("loop"))) {
+            start(readBlock(token));
+            return next();
+        }
+        if (token != null && !quoted && (token.equals("{") || token.equals("}"))) {
+            throw error("unexpected " + token);
+        }
+        return token;
+    }
+
+    /**
+     * Starts running a block, unless it is repeated zero times.
+     */
+    private void start(Block block) {
+        if (block.count != 0 && block.body.length > 0) {
+            block.position = 0;
+            block.remaining = block.count;
+            running.add(block);
+        }
+    }
+
+    /**
+     * Reads a repeated block, after its "repeat" or "loop" keyword.
+     */
+    private Block readBlock(String keyword) {
+        int count = FOREVER;
+        if (keyword.equals("repeat")) {
+            String times = readToken();
+            try {
+                count = Integer.parseInt(times);
+            } catch (NumberFormatException e) {
+                throw error("repeat needs a count, not " + times);
+            }
+            if (count < 0) {
+                throw error("repeat needs a count of 0 or more");
+            }
+        }
+        String open = readToken();
+        if (open == null || quoted || !open.equals("{")) {
+            throw error(keyword + " needs a block in { }");
+        }
+
+        ArrayList<Object> body = new ArrayList<>();
+        boolean hasAnswers = false;
+        String token = readToken();
+        while (quoted || token != null && !token.equals("}")) {
+            if (!quoted && (token.equals("repeat") || token.equals("loop"))) {
+                Block inner = readBlock(token);
+                body.add(inner);
+                hasAnswers |= inner.count != 0 && hasAnswers(inner);
+            } else if (!quoted && token.equals("{")) {
+                throw error("unexpected {");
+            } else {
+                body.add(token);
+                hasAnswers = true;
+            }
+            token = readToken();
+        }
+        if (token == null) {
+            throw error("missing } at the end of the script");
+        }
+        if (count == FOREVER && !hasAnswers) {
+            throw error("loop without any answers would never end");
+        }
+        return new Block(count, body.toArray());
+    }
+
+    private static boolean hasAnswers(Block block) {
+        for (Object element : block.body) {
+            if (element instanceof String || ((Block) element).count != 0 && hasAnswers((Block) element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the next word, quoted answer, or brace.
+     *
+     * @return The token, or null at the end of the script.
+     */
+    private String readToken() {
+        quoted = false;
+        int b = skipSeparators();
+        if (b < 0) {
+            return null;
+        }
+        if (b == '{' || b == '}') {
+            return b == '{' ? "{" : "}";
+        }
+
+        int length = 0;
+        if (b == '"') {
+            quoted = true;
+            b = read();
+            while (b != '"') {
+                if (b < 0 || b == '\n') {
+                    throw error("missing closing quote");
+                }
+                length = append(length, b);
+                b = read();
+            }
+        } else {
+            while (b >= 0 && !isSeparator(b) && b != '{' && b != '}' && b != '#') {
+                length = append(length, b);
+                b = read();
+            }
+            if (b >= 0) {
+                // leave the character that ended the word to be read next
+                buffer.position(buffer.position() - 1);
+                if (b == '\n') {
+                    line--;
+                }
+            }
+        }
+        return new String(word, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Skips spaces, semicolons and comments.
+     *
+     * @return The first byte after them, or -1 at the end of the script.
+     */
+    private int skipSeparators() {
+        int b = read();
+        while (b >= 0 && (isSeparator(b) || b == '#')) {
+            if (b == '#') {
+                while (b >= 0 && b != '\n') {
+                    b = read();
+                }
+            } else {
+                b = read();
+            }
+        }
+        return b;
+    }
+
+    private static boolean isSeparator(int b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == ';';
+    }
+
+    private int append(int length, int b) {
+        if (length == word.length) {
+            word = Arrays.copyOf(word, length * 2);
+        }
+        word[length] = (byte) b;
+        return length + 1;
+    }
+
+    /**
+     * @return The next byte of the script, or -1 at the end.
+     */
+    private int read() {
+        if (!buffer.hasRemaining()) {
+            if (endOfInput || !fill()) {
+                return -1;
+            }
+        }
+        int b = buffer.get() & 0xFF;
+        if (b == '\n') {
+            line++;
+        }
+        return b;
+    }
+
+    /**
+     * Reads more of the script into the buffer, keeping the last byte so it can be pushed back.
+     *
+     * @return false at the end of the script.
+     */
+    private boolean fill() {
+        try {
+            byte last = buffer.limit() > 0 ? buffer.get(buffer.limit() - 1) : 0;
+            buffer.clear();
+            buffer.put(last);
+            int read = 0;
+            while (read == 0) {
+                read = in.read(buffer);
+            }
+            buffer.flip();
+            buffer.position(1);
+            if (read < 0) {
+                endOfInput = true;
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Script line " + line + ": " + message);
+    }
+}
@@ -0,0 +1,82 @@
+package treasurehunter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The ConsolePlayer class is a person typing at a terminal. <p>
+ * Every decision is read as a line from the player's input stream; the prompts are printed
+ * by the game. The input can be standard input or a network connection, so each session
+ * reads from its own stream. When the input runs out the player quits the game.
+ */
+
+public class ConsolePlayer implements Player {
+    // instance variables
+    private BufferedReader in;
+    private OutputSink prompts;
+
+    /**
+     * Creates a player reading from the given stream.
+     *
+     * @param in Where the player's answers come from.
+     * @param prompts The sink the game prints its prompts to; it is flushed before each read.
+     */
+    public ConsolePlayer(InputStream in, OutputSink prompts) {
+        this(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), prompts);
+    }
+
+    /**
+     * @param in Where the player's answers come from.
+     * @param prompts The sink the game prints its prompts to; it is flushed before each read.
+     */
+    public ConsolePlayer(BufferedReader in, OutputSink prompts) {
+        this.in = in;
+        this.prompts = prompts;
+    }
+
+    public String chooseName() {
+        return nextLine("");
+    }
+
+    public String chooseMode() {
+        return nextLine("");
+    }
+
+    public String chooseAction(Hunter hunter, Town town) {
+        return nextLine("x");
+    }
+
+    public String chooseItem(Hunter hunter, Shop shop, boolean isBuying) {
+        return nextLine("");
+    }
+
+    public boolean confirmTrade(String item, int cost, boolean isBuying) {
+        return nextLine("n").equals("y");
+    }
+
+    public boolean playAgain(GameResult result) {
+        return nextLine("n").equals("y");
+    }
+
+    /**
+     * Shows the pending prompt and reads the player's answer.
+     *
+     * @param endOfInput The answer to use once the input is closed.
+     * @return The next line in lowercase.
+     */
+    private String nextLine(String endOfInput) {
+        prompts.flush();
+        try {
+            String line = in.readLine();
+            if (line == null) {
+                return endOfInput;
+            }
+            return line.trim().toLowerCase();
+        } catch (IOException e) {
+            return endOfInput;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package treasurehunter;
+
+/**
+ * The GameAction class is one move in a GameSession: the menu options of the console game, as
+ * values instead of typed letters. <p>
+ * Actions are constants, and buying or selling an item uses one of a table of actions made when
+ * the class is loaded, so playing a turn allocates nothing.
+ */
+
+public final class GameAction {
+    /**
+     * What kind of move an action is.
+     */
+    public enum Kind {
+        BUY, SELL, MOVE, LOOK_FOR_TROUBLE, HUNT, DIG, SAVE, LOAD, QUIT, INVALID
+    }
+
+    // constants
+    public static final GameAction MOVE = new GameAction(Kind.MOVE, Items.NONE);
+    public static final GameAction LOOK_FOR_TROUBLE = new GameAction(Kind.LOOK_FOR_TROUBLE, Items.NONE);
+    public static final GameAction HUNT = new GameAction(Kind.HUNT, Items.NONE);
+    public static final GameAction DIG = new GameAction(Kind.DIG, Items.NONE);
+    public static final GameAction SAVE = new GameAction(Kind.SAVE, Items.NONE);
+    public static final GameAction LOAD = new GameAction(Kind.LOAD, Items.NONE);
+    public static final GameAction QUIT = new GameAction(Kind.QUIT, Items.NONE);
+
+    /**
+     * Anything the game doesn't understand; it still uses up the turn.
+     */
+    public static final GameAction INVALID = new GameAction(Kind.INVALID, Items.NONE);
+
+    /**
+     * Goes into the shop and asks the session's Player what to buy, as the console game does.
+     */
+    public static final GameAction SHOP_BUY = new GameAction(Kind.BUY, Items.NONE);
+
+    /**
+     * Goes into the shop and asks the session's Player what to sell, as the console game does.
+     */
+    public static final GameAction SHOP_SELL = new GameAction(Kind.SELL, Items.NONE);
+
+    private static final GameAction[] BUY = new GameAction[Items.count()];
+    private static final GameAction[] SELL = new GameAction[Items.count()];
+
+    static {
+        for (int item = 0; item < BUY.length; item++) {
+            BUY[item] = new GameAction(Kind.BUY, item);
+            SELL[item] = new GameAction(Kind.SELL, item);
+        }
+    }
+
+    // instance variables
+    private final Kind kind;
+    private final int item;
+
+    private GameAction(Kind kind, int item) {
+        this.kind = kind;
+        this.item = item;
+    }
+
+    /**
+     * Buys an item at the shop's price, without any questions.
+     *
+     * @param item The item's ordinal (see Items).
+     * @return The action.
+     */
+    public static GameAction buy(int item) {
+        return BUY[item];
+    }
+
+    /**
+     * Sells an item at the shop's price, without any questions.
+     *
+     * @param item The item's ordinal (see Items).
+     * @return The action.
+     */
+    public static GameAction sell(int item) {
+        return SELL[item];
+    }
+
+    /**
+     * Reads a menu option as typed at the console.
+     *
+     * @param choice One of "b", "s", "m", "l", "h", "d", "save", "load" or "x", in lowercase.
+     * @return The action; buying and selling ask the Player for the item.
+     */
+    public static GameAction parse(String choice) {
+        switch (choice) {
+            case "b":
+                return SHOP_BUY;
+            case "s":
+                return SHOP_SELL;
+            case "m":
+                return MOVE;
+            case "l":
+                return LOOK_FOR_TROUBLE;
+            case "h":
+                return HUNT;
+            case "d":
+                return DIG;
+            case "save":
+                return SAVE;
+            case "load":
+                return LOAD;
+            case "x":
+                return QUIT;
+            default:
+                return INVALID;
+        }
+    }
+
+    // accessors
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return The item bought or sold, or Items.NONE if the Player is asked or the action isn't a trade.
+     */
+    public int getItem() {
+        return item;
+    }
+
+    public String toString() {
+        return item == Items.NONE ? kind.toString() : kind + " " + Items.nameOf(item);
+    }
+}
@@ -0,0 +1,102 @@
+package treasurehunter;
+
+import java.nio.file.Path;
+
+/**
+ * The GameConfig class holds what a GameSession is started from: the hunter's name, the mode and
+ * the seed, along with the optional settings a console player never gets asked about.
+ */
+
+public class GameConfig {
+    // instance variables
+    private String hunterName;
+    private String mode;
+    private long seed;
+    private int maxTurns;
+    private boolean townPrices;
+    private Path saveFile;
+    private OutputSink out;
+
+    /**
+     * @param hunterName The hunter's name.
+     * @param mode The difficulty, as answered to the mode prompt: "h", "e", "n", "s" or "test".
+     * @param seed The seed for all of the game's random numbers.
+     */
+    public GameConfig(String hunterName, String mode, long seed) {
+        this.hunterName = hunterName;
+        this.mode = mode;
+        this.seed = seed;
+        maxTurns = 0;
+        saveFile = null;
+        out = NullSink.INSTANCE;
+    }
+
+    // accessors
+    public String getHunterName() {
+        return hunterName;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return The most turns the game may last, or 0 for no limit.
+     */
+    public int getMaxTurns() {
+        return maxTurns;
+    }
+
+    public void setMaxTurns(int maxTurns) {
+        this.maxTurns = maxTurns;
+    }
+
+    public boolean getTownPrices() {
+        return townPrices;
+    }
+
+    public void setTownPrices(boolean townPrices) {
+        this.townPrices = townPrices;
+    }
+
+    /**
+     * @return Where GameAction.SAVE and LOAD keep the saved game, or null for the default
+     *         (see GameContext.getSaveFile()). Games that run at the same time need files of their own.
+     */
+    public Path getSaveFile() {
+        return saveFile;
+    }
+
+    public void setSaveFile(Path saveFile) {
+        this.saveFile = saveFile;
+    }
+
+    /**
+     * @return Where the game's text goes; by default nowhere.
+     */
+    public OutputSink getOut() {
+        return out;
+    }
+
+    public void setOut(OutputSink out) {
+        this.out = out;
+    }
+
+    /**
+     * @return A context for a game with these settings and no Player to ask.
+     */
+    GameContext newContext() {
+        GameContext context = new GameContext(null, out, seed);
+        context.setMode(mode.toLowerCase());
+        context.setMaxTurns(maxTurns);
+        context.setTownPrices(townPrices);
+        if (saveFile != null) {
+            context.setSaveFile(saveFile);
+        }
+        return context;
+    }
+}
@@ -0,0 +1,298 @@
+package treasurehunter;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+/**
+ * The GameContext class holds everything that belongs to one game session:
+ * the player making the choices, where the output goes, the selected mode, and the
+ * random numbers that drive the game. <p>
+ * Each game gets its own context, so several games can run in the same JVM without
+ * seeing each other's settings, and one context can be reused for back-to-back games. <p>
+ * All of a session's randomness comes from one generator seeded from a single seed, so the
+ * seed and the player's choices fully determine a game.
+ */
+
+public class GameContext {
+    // constants
+    // the console, the server, replays and simulations give each town's shop its own prices when
+    // the JVM is started with -Dtreasurehunter.townPrices=true
+    public static final String TOWN_PRICES_PROPERTY = "treasurehunter.townPrices";
+
+    // instance variables
+    private Player player;
+    private OutputSink out;
+    private long seed;
+    private SplittableRandom random;
+    private boolean hardMode;
+    private boolean testMode;
+    private boolean easyMode;
+    private boolean samuraiMode;
+    private int maxTurns;
+    private boolean townPrices;
+    private World world;
+    private SharedWorld sharedWorld;
+    private Path saveFile;
+    private Leaderboard leaderboard;
+    private GameStats stats;
+    private boolean lose;
+
+    /**
+     * Creates a context with a random seed, normal mode and no turn limit.
+     *
+     * @param player The player making the choices.
+     * @param out Where the game prints to.
+     */
+    public GameContext(Player player, OutputSink out) {
+        this(player, out, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates a context with normal mode and no turn limit.
+     *
+     * @param player The player making the choices.
+     * @param out Where the game prints to.
+     * @param seed The seed for all of the session's random numbers.
+     */
+    public GameContext(Player player, OutputSink out, long seed) {
+        this.player = player;
+        this.out = out;
+        this.seed = seed;
+        random = new SplittableRandom(seed);
+        maxTurns = 0;
+        saveFile = Paths.get("treasurehunter.sav");
+    }
+
+    // accessors
+    public Player getPlayer() {
+        return player;
+    }
+
+    public OutputSink getOut() {
+        return out;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return The session's random number generator; only use it from the session's thread.
+     */
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
+    public boolean getHardMode() {
+        return hardMode;
+    }
+
+    public boolean getTestMode() {
+        return testMode;
+    }
+
+    public boolean getEasyMode() {
+        return easyMode;
+    }
+
+    public boolean getSamuraiMode() {
+        return samuraiMode;
+    }
+
+    /**
+     * @return The most turns the game may last, or 0 for no limit.
+     */
+    public int getMaxTurns() {
+        return maxTurns;
+    }
+
+    public void setMaxTurns(int maxTurns) {
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * @return true if each town's shop sets its own prices instead of using the base prices.
+     */
+    public boolean getTownPrices() {
+        return townPrices;
+    }
+
+    public void setTownPrices(boolean townPrices) {
+        this.townPrices = townPrices;
+    }
+
+    /**
+     * @return The world the game travels through, or null if every move goes to a brand new town.
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    public void setWorld(World world) {
+        this.world = world;
+    }
+
+    /**
+     * @return The world the game shares with other hunters' games, or null if the hunter is alone.
+     */
+    public SharedWorld getSharedWorld() {
+        return sharedWorld;
+    }
+
+    /**
+     * Puts the game in a world shared with other games; this also makes it the game's world.
+     *
+     * @param sharedWorld The shared world.
+     */
+    public void setSharedWorld(SharedWorld sharedWorld) {
+        this.sharedWorld = sharedWorld;
+        world = sharedWorld.getWorld();
+    }
+
+    /**
+     * @return Where the save and load commands keep the saved game; treasurehunter.sav in the
+     *         current directory unless it's been set.
+     */
+    public Path getSaveFile() {
+        return saveFile;
+    }
+
+    public void setSaveFile(Path saveFile) {
+        this.saveFile = saveFile;
+    }
+
+    /**
+     * @return Where finished games are recorded, or null if they aren't.
+     */
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    public void setLeaderboard(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+
+    /**
+     * @return Where deaths and broken items are tallied, or null if they aren't.
+     */
+    public GameStats getStats() {
+        return stats;
+    }
+
+    public void setStats(GameStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * @return The selected mode as its answer to the mode prompt: "h", "e", "s", "test" or "n".
+     */
+    public String getModeName() {
+        if (hardMode) {
+            return "h";
+        } else if (easyMode) {
+            return "e";
+        } else if (samuraiMode) {
+            return "s";
+        } else if (testMode) {
+            return "test";
+        }
+        return "n";
+    }
+
+    /**
+     * @return true if the hunter has been killed in a brawl.
+     */
+    public boolean getLose() {
+        return lose;
+    }
+
+    public void setLose(boolean lose) {
+        this.lose = lose;
+    }
+
+    /**
+     * Writes the session's settings and random numbers to a saved game (see GameSnapshot).
+     * The session carries on with a fresh generator whose seed is what gets saved.
+     *
+     * @param snapshot Where to write.
+     */
+    void writeTo(ByteBuffer snapshot) {
+        long randomSeed = reseed();
+        snapshot.putLong(seed).putLong(randomSeed);
+        snapshot.put((byte) ((hardMode ? 1 : 0) | (testMode ? 2 : 0) | (easyMode ? 4 : 0)
+                | (samuraiMode ? 8 : 0) | (townPrices ? 16 : 0)));
+        snapshot.putInt(maxTurns);
+    }
+
+    /**
+     * Starts the session on a fresh generator seeded from the current one, so the state of the
+     * random numbers can be kept as a single seed (see GameSnapshot and GameState).
+     *
+     * @return The fresh generator's seed.
+     */
+    long reseed() {
+        long randomSeed = random.nextLong();
+        random = new SplittableRandom(randomSeed);
+        return randomSeed;
+    }
+
+    /**
+     * Restarts the session's random numbers from a seed made by reseed().
+     *
+     * @param randomSeed The seed.
+     */
+    void restartRandom(long randomSeed) {
+        random = new SplittableRandom(randomSeed);
+    }
+
+    /**
+     * Restores the session's settings and random numbers from a saved game.
+     *
+     * @param snapshot Where to read from.
+     */
+    void readFrom(ByteBuffer snapshot) {
+        seed = snapshot.getLong();
+        random = new SplittableRandom(snapshot.getLong());
+        int flags = snapshot.get();
+        hardMode = (flags & 1) != 0;
+        testMode = (flags & 2) != 0;
+        easyMode = (flags & 4) != 0;
+        samuraiMode = (flags & 8) != 0;
+        townPrices = (flags & 16) != 0;
+        maxTurns = snapshot.getInt();
+        lose = false;
+    }
+
+    /**
+     * Takes on the settings and random numbers that a saved game was read into (see readFrom()).
+     * The player, the output and everything else the session was set up with stay as they are.
+     *
+     * @param saved The context the saved game was read into.
+     */
+    void restoreFrom(GameContext saved) {
+        seed = saved.seed;
+        random = saved.random;
+        hardMode = saved.hardMode;
+        testMode = saved.testMode;
+        easyMode = saved.easyMode;
+        samuraiMode = saved.samuraiMode;
+        townPrices = saved.townPrices;
+        maxTurns = saved.maxTurns;
+        lose = false;
+    }
+
+    /**
+     * Selects the mode from the answer to the "(h)ard, (e)asy, or (n)ormal" prompt.
+     * Anything that isn't a known mode leaves the game in normal mode.
+     *
+     * @param mode The player's answer.
+     */
+    public void setMode(String mode) {
+        hardMode = mode.equals("h");
+        testMode = mode.equals("test");
+        easyMode = mode.equals("e");
+        samuraiMode = mode.equals("s");
+    }
+}
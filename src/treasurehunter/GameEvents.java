@@ -0,0 +1,144 @@
+package treasurehunter;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * The GameEvents class sends game events to JDK Flight Recorder, so a recording shows what
+ * the hunters were doing next to the usual GC and thread events. <p>
+ * Start the JVM with -XX:StartFlightRecording (or start a recording with jcmd) to capture them.
+ * A listener keeps track of whether any recording is running. When none is, each method returns
+ * after reading one flag and the event object is never allocated; this is cheaper on the
+ * simulation's hot path than asking each event type whether it is enabled.
+ */
+
+public class GameEvents {
+    /**
+     * A brawl in lookForTrouble().
+     */
+    @Name("treasurehunter.Brawl")
+    @Label("Brawl")
+    @Category("Treasure Hunter")
+    @Description("A hunter got into a fight while looking for trouble")
+    static class BrawlEvent extends Event {
+        @Label("Hunter")
+        String hunter;
+
+        @Label("Outcome")
+        @Description("won, lost or killed")
+        String outcome;
+
+        @Label("Gold")
+        @Description("The gold at stake")
+        int gold;
+    }
+
+    /**
+     * Any change to a hunter's gold.
+     */
+    @Name("treasurehunter.GoldChange")
+    @Label("Gold Change")
+    @Category("Treasure Hunter")
+    static class GoldChangeEvent extends Event {
+        @Label("Hunter")
+        String hunter;
+
+        @Label("Delta")
+        int delta;
+
+        @Label("Gold")
+        @Description("The gold after the change")
+        int gold;
+    }
+
+    /**
+     * An item that broke while crossing terrain.
+     */
+    @Name("treasurehunter.ItemBroken")
+    @Label("Item Broken")
+    @Category("Treasure Hunter")
+    static class ItemBrokenEvent extends Event {
+        @Label("Hunter")
+        String hunter;
+
+        @Label("Item")
+        String item;
+
+        @Label("Terrain")
+        String terrain;
+    }
+
+    // true while at least one recording is running
+    private static volatile boolean recording;
+
+    static {
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            public void recordingStateChanged(Recording changed) {
+                checkRecordings();
+            }
+        });
+        // a recording started on the command line is already running
+        if (FlightRecorder.isInitialized()) {
+            checkRecordings();
+        }
+    }
+
+    private static void checkRecordings() {
+        boolean running = false;
+        for (Recording each : FlightRecorder.getFlightRecorder().getRecordings()) {
+            running |= each.getState() == RecordingState.RUNNING;
+        }
+        recording = running;
+    }
+
+    /**
+     * @param hunter The hunter in the brawl.
+     * @param outcome "won", "lost" or "killed".
+     * @param gold The gold at stake.
+     */
+    public static void brawl(Hunter hunter, String outcome, int gold) {
+        if (recording) {
+            BrawlEvent event = new BrawlEvent();
+            event.hunter = hunter.getHunterName();
+            event.outcome = outcome;
+            event.gold = gold;
+            event.commit();
+        }
+    }
+
+    /**
+     * @param hunter The hunter whose gold changed.
+     * @param delta How much the gold went up or down by.
+     */
+    public static void goldChange(Hunter hunter, int delta) {
+        if (recording) {
+            GoldChangeEvent event = new GoldChangeEvent();
+            event.hunter = hunter.getHunterName();
+            event.delta = delta;
+            event.gold = hunter.getGold();
+            event.commit();
+        }
+    }
+
+    /**
+     * @param hunter The hunter who lost the item.
+     * @param item The item's ordinal.
+     * @param terrain The terrain being crossed.
+     */
+    public static void itemBroken(Hunter hunter, int item, Terrain terrain) {
+        if (recording) {
+            ItemBrokenEvent event = new ItemBrokenEvent();
+            event.hunter = hunter.getHunterName();
+            event.item = Items.nameOf(item);
+            event.terrain = terrain.getTerrainName();
+            event.commit();
+        }
+    }
+}
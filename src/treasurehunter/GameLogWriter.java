@@ -0,0 +1,181 @@
+package treasurehunter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The GameLogWriter class records a game session as a compact binary event log. <p>
+ * The log starts with a header (magic, version, the session's seed and the settings that change
+ * how it plays) followed by one event per player decision. Menu moves are a single byte, shop items are an opcode plus a varint
+ * ordinal, and yes/no answers are a single byte; only free text (names, typos) is stored as
+ * UTF-8. Together with the seed this is enough to replay the session exactly (see GameReplay). <p>
+ * Events are gathered in a buffer and written to the file channel in large blocks.
+ */
+
+public class GameLogWriter implements Closeable {
+    // constants
+    static final int MAGIC = 0x54484C47; // "THLG"
+    // version 2 logs replay towns drawn from alias tables (see AliasTable); version 3 added the
+    // settings byte, and older logs can't be replayed
+    static final byte VERSION = 3;
+
+    // the settings byte in the header
+    static final byte TOWN_PRICES = 1;
+    static final byte IN_WORLD = 2;
+
+    static final byte NAME = 1;
+    static final byte MODE = 2;
+    static final byte ACTION_TEXT = 3;
+    static final byte ITEM = 4;
+    static final byte ITEM_TEXT = 5;
+    static final byte YES = 6;
+    static final byte NO = 7;
+    static final byte AGAIN_YES = 8;
+    static final byte AGAIN_NO = 9;
+    // the menu moves are stored as their own letter
+    static final String MOVES = "bsmlhdx";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    // instance variables
+    private FileChannel channel;
+    private ByteBuffer buffer;
+
+    /**
+     * Creates the log file and writes its header.
+     *
+     * @param path The file to write; an existing file is replaced.
+     * @param seed The seed of the session being recorded.
+     * @param townPrices Whether the session's shops have town prices (see GameContext.setTownPrices()).
+     * @param inWorld Whether the session travels through a World, which a replay can't reproduce.
+     * @throws IOException if the file can't be created.
+     */
+    public GameLogWriter(Path path, long seed, boolean townPrices, boolean inWorld) throws IOException {
+        this(path, seed, townPrices, inWorld, true);
+    }
+
+    /**
+     * Creates the log file and writes its header.
+     *
+     * @param path The file to write.
+     * @param seed The seed of the session being recorded.
+     * @param townPrices Whether the session's shops have town prices (see GameContext.setTownPrices()).
+     * @param inWorld Whether the session travels through a World, which a replay can't reproduce.
+     * @param replace Whether an existing file is replaced; if not, an existing file is left alone
+     *                and FileAlreadyExistsException is thrown.
+     * @throws IOException if the file can't be created.
+     */
+    public GameLogWriter(Path path, long seed, boolean townPrices, boolean inWorld, boolean replace) throws IOException {
+        channel = replace
+                ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)
+                : FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.putLong(seed);
+        buffer.put((byte) ((townPrices ? TOWN_PRICES : 0) | (inWorld ? IN_WORLD : 0)));
+    }
+
+    public void writeName(String name) {
+        writeText(NAME, name);
+    }
+
+    public void writeMode(String mode) {
+        writeText(MODE, mode);
+    }
+
+    /**
+     * @param action The menu choice as the player gave it.
+     */
+    public void writeAction(String action) {
+        if (action.length() == 1 && MOVES.indexOf(action.charAt(0)) >= 0) {
+            ensureRoom(1);
+            buffer.put((byte) action.charAt(0));
+        } else {
+            writeText(ACTION_TEXT, action);
+        }
+    }
+
+    /**
+     * @param item The shop item as the player gave it.
+     */
+    public void writeItem(String item) {
+        int ordinal = Items.ordinalOf(item.toLowerCase());
+        if (ordinal == Items.NONE || !Items.nameOf(ordinal).equals(item)) {
+            writeText(ITEM_TEXT, item);
+        } else {
+            ensureRoom(6);
+            buffer.put(ITEM);
+            putVarint(ordinal);
+        }
+    }
+
+    public void writeConfirm(boolean accepted) {
+        ensureRoom(1);
+        buffer.put(accepted ? YES : NO);
+    }
+
+    public void writePlayAgain(boolean again) {
+        ensureRoom(1);
+        buffer.put(again ? AGAIN_YES : AGAIN_NO);
+    }
+
+    /**
+     * Writes everything buffered so far to the file.
+     */
+    public void flush() {
+        try {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    /**
+     * Writes an opcode followed by a varint length and UTF-8 text.
+     */
+    private void writeText(byte opcode, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        ensureRoom(6);
+        buffer.put(opcode);
+        putVarint(bytes.length);
+        for (int i = 0; i < bytes.length; i += BUFFER_SIZE) {
+            int length = Math.min(BUFFER_SIZE, bytes.length - i);
+            ensureRoom(length);
+            buffer.put(bytes, i, length);
+        }
+    }
+
+    /**
+     * Writes a non-negative int in 7-bit groups, low group first.
+     */
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void ensureRoom(int bytes) {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package treasurehunter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The GameMetrics class counts how often each game action runs and how long it takes. <p>
+ * Metrics are off unless the JVM is started with -Dtreasurehunter.metrics=true. ENABLED is a
+ * constant, so when metrics are off the JIT removes the timing calls altogether and the game
+ * actions cost exactly what they did before. When they are on, each action adds two
+ * System.nanoTime() calls and two LongAdder increments, which don't contend across the threads
+ * of a simulation. Time spent waiting for a player to answer is left out of every action. <p>
+ * Latencies go into histograms with four buckets per power of two, so a percentile is accurate to
+ * within 25%. With -Dtreasurehunter.metrics.file=path the snapshot is also written to a file every
+ * ten seconds. <p>
+ * Typical use in an action:
+ * <pre>
+ * long start = GameMetrics.start();
+ * ...
+ * GameMetrics.record(GameMetrics.DIG, start);
+ * </pre>
+ */
+
+public class GameMetrics {
+    // constants
+    public static final boolean ENABLED = Boolean.getBoolean("treasurehunter.metrics");
+    public static final int PROCESS_CHOICE = 0;
+    public static final int SHOP_ENTER = 1;
+    public static final int BUY = 2;
+    public static final int SELL = 3;
+    public static final int LOOK_FOR_TROUBLE = 4;
+    public static final int LEAVE_TOWN = 5;
+    public static final int HUNT = 6;
+    public static final int DIG = 7;
+    private static final String[] NAMES = {"processChoice", "Shop.enter", "Shop.buyItem", "Shop.sellItem",
+            "lookForTrouble", "leaveTown", "huntForTreasure", "digTreasure"};
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+    private static final long DUMP_SECONDS = 10;
+
+    // the histograms, one row of buckets per action, and the total time per action
+    private static final LongAdder[][] HISTOGRAMS = ENABLED ? new LongAdder[NAMES.length][BUCKETS] : null;
+    private static final LongAdder[] TOTALS = ENABLED ? new LongAdder[NAMES.length] : null;
+    // the time each thread has spent waiting for a player to answer, which no action is charged for
+    private static final ThreadLocal<long[]> WAITED = ENABLED ? ThreadLocal.withInitial(() -> new long[1]) : null;
+
+    static {
+        if (ENABLED) {
+            for (int action = 0; action < NAMES.length; action++) {
+                TOTALS[action] = new LongAdder();
+                for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                    HISTOGRAMS[action][bucket] = new LongAdder();
+                }
+            }
+            String file = System.getProperty("treasurehunter.metrics.file");
+            if (file != null) {
+                startDumping(Paths.get(file), DUMP_SECONDS);
+            }
+        }
+    }
+
+    /**
+     * The counts and latencies of every action at one moment.
+     */
+    public static class Snapshot {
+        private long[][] buckets;
+        private long[] totals;
+
+        Snapshot(long[][] buckets, long[] totals) {
+            this.buckets = buckets;
+            this.totals = totals;
+        }
+
+        /**
+         * @param action One of the action constants.
+         * @return How many times the action has run.
+         */
+        public long getCount(int action) {
+            long count = 0;
+            for (long bucket : buckets[action]) {
+                count += bucket;
+            }
+            return count;
+        }
+
+        public double getMeanNanos(int action) {
+            long count = getCount(action);
+            return count == 0 ? 0 : (double) totals[action] / count;
+        }
+
+        /**
+         * @param action One of the action constants.
+         * @param percentile The percentile, from 0 to 100.
+         * @return The upper bound of the bucket the percentile falls in, in nanoseconds.
+         */
+        public long getPercentileNanos(int action, double percentile) {
+            long count = getCount(action);
+            long rank = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += buckets[action][bucket];
+                if (seen >= rank && seen > 0) {
+                    return upperBound(bucket);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return A table with a row per action.
+         */
+        public String toString() {
+            StringBuilder str = new StringBuilder(1024);
+            str.append(String.format("%-16s %12s %10s %10s %10s %10s%n", "action", "count", "mean ns", "p50 ns", "p99 ns", "p99.9 ns"));
+            for (int action = 0; action < NAMES.length; action++) {
+                str.append(String.format("%-16s %12d %10.0f %10d %10d %10d%n", NAMES[action], getCount(action),
+                        getMeanNanos(action), getPercentileNanos(action, 50), getPercentileNanos(action, 99),
+                        getPercentileNanos(action, 99.9)));
+            }
+            return str.toString();
+        }
+    }
+
+    /**
+     * @return The time an action starts, not counting time spent waiting for players, or 0 if
+     *         metrics are off.
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() - WAITED.get()[0] : 0;
+    }
+
+    /**
+     * Counts an action and records how long it took, leaving out any time it spent waiting for
+     * the player (see startWaiting()).
+     *
+     * @param action One of the action constants.
+     * @param start What start() returned when the action began.
+     */
+    public static void record(int action, long start) {
+        if (ENABLED) {
+            long nanos = System.nanoTime() - WAITED.get()[0] - start;
+            HISTOGRAMS[action][bucketOf(nanos)].increment();
+            TOTALS[action].add(nanos);
+        }
+    }
+
+    /**
+     * Marks the start of a wait for the player, such as a console player typing or a remote
+     * player's answer coming over the network. Every action running on this thread leaves the
+     * wait out of its time, so the latencies are the game's own work and not the player's.
+     *
+     * @return The time the wait starts, or 0 if metrics are off.
+     */
+    public static long startWaiting() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Marks the end of a wait for the player.
+     *
+     * @param start What startWaiting() returned.
+     */
+    public static void stopWaiting(long start) {
+        if (ENABLED) {
+            WAITED.get()[0] += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * @return The counts and latencies so far, or null if metrics are off.
+     */
+    public static Snapshot snapshot() {
+        if (!ENABLED) {
+            return null;
+        }
+        long[][] buckets = new long[NAMES.length][BUCKETS];
+        long[] totals = new long[NAMES.length];
+        for (int action = 0; action < NAMES.length; action++) {
+            totals[action] = TOTALS[action].sum();
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                buckets[action][bucket] = HISTOGRAMS[action][bucket].sum();
+            }
+        }
+        return new Snapshot(buckets, totals);
+    }
+
+    /**
+     * Writes the current snapshot to a file, replacing the last one.
+     *
+     * @param file Where to write.
+     * @throws IOException if the file can't be written.
+     */
+    public static void dump(Path file) throws IOException {
+        Snapshot snapshot = snapshot();
+        if (snapshot != null) {
+            Files.write(file, snapshot.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Dumps the snapshot to a file from a background thread, until the JVM exits.
+     *
+     * @param file Where to write.
+     * @param periodSeconds How often to write.
+     */
+    public static void startDumping(Path file, long periodSeconds) {
+        ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> {
+            try {
+                dump(file);
+            } catch (IOException e) {
+                System.err.println("Couldn't write metrics to " + file + ": " + e.getMessage());
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Finds the histogram bucket for a latency: the power of two, then which quarter of it.
+     */
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(nanos, 0);
+        }
+        int power = 63 - Long.numberOfLeadingZeros(nanos);
+        int quarter = (int) (nanos >>> (power - 2)) & (SUB_BUCKETS - 1);
+        return power * SUB_BUCKETS + quarter;
+    }
+
+    /**
+     * @return The largest latency that falls into the bucket.
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int power = bucket / SUB_BUCKETS;
+        long quarter = bucket % SUB_BUCKETS;
+        return (1L << power) + ((quarter + 1) << (power - 2)) - 1;
+    }
+}
@@ -0,0 +1,71 @@
+package treasurehunter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The GameReplay class re-runs a recorded game session (see GameLogWriter) headlessly. <p>
+ * The session is played again from its seed with a ReplayPlayer making the recorded decisions,
+ * so it follows exactly the same path as the original, only without waiting for anybody to type. <p>
+ * Sessions played in a World can't be replayed, as the towns came from the world file as it was
+ * then, and other hunters may have changed it since. <p>
+ * Each replay saves to a save file of its own, which starts out missing and is deleted
+ * afterwards, so replaying a session never touches the player's saved game.
+ */
+
+public class GameReplay {
+    private GameReplay() {
+    }
+
+    /**
+     * Replays a recorded session.
+     *
+     * @param path The game log.
+     * @param out Where the replayed game prints to.
+     * @return How the last game of the session ended.
+     * @throws IOException if the log can't be read, or the replay's save file can't be made.
+     * @throws IllegalArgumentException if the session was played in a World.
+     */
+    public static GameResult replay(Path path, OutputSink out) throws IOException {
+        ReplayPlayer player = ReplayPlayer.open(path);
+        if (player.isInWorld()) {
+            throw new IllegalArgumentException("Sessions played in a world can't be replayed");
+        }
+        GameContext context = new GameContext(player, out, player.getSeed());
+        context.setTownPrices(player.getTownPrices());
+        Path saveDirectory = Files.createTempDirectory("treasurehunter");
+        Path saveFile = saveDirectory.resolve("replay.sav");
+        context.setSaveFile(saveFile);
+        try {
+            return new TreasureHunter(context).playSession();
+        } finally {
+            Files.deleteIfExists(saveFile);
+            Files.delete(saveDirectory);
+        }
+    }
+
+    /**
+     * Replays a game log.
+     *
+     * @param args The log file, and optionally "-v" to print the replayed game.
+     * @throws IOException if the log can't be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("usage: GameReplay <log file> [-v]");
+            return;
+        }
+        boolean verbose = args.length > 1 && args[1].equals("-v");
+        OutputSink out = verbose ? TerminalSink.forConsole() : NullSink.INSTANCE;
+
+        long start = System.nanoTime();
+        GameResult result = replay(Paths.get(args[0]), out);
+        double millis = (System.nanoTime() - start) / 1e6;
+        out.flush();
+
+        System.out.println();
+        System.out.printf("%s (replayed in %.2f ms)%n", result, millis);
+    }
+}
@@ -0,0 +1,73 @@
+package treasurehunter;
+
+/**
+ * The GameResult class describes how a finished game ended. <p>
+ * It is returned by TreasureHunter.play() instead of the game exiting the JVM.
+ */
+
+public class GameResult {
+    /**
+     * The ways a game can end.
+     */
+    public enum Outcome {
+        WON, LOST, QUIT
+    }
+
+    // instance variables
+    private String hunterName;
+    private String mode;
+    private Outcome outcome;
+    private int turns;
+    private int gold;
+    private int treasures;
+
+    /**
+     * @param hunterName The hunter's name.
+     * @param mode The difficulty, as answered to the mode prompt (see GameContext.getModeName()).
+     * @param outcome How the game ended.
+     * @param turns The number of menu choices played.
+     * @param gold The gold the hunter had at the end.
+     * @param treasures How many treasures the hunter found.
+     */
+    public GameResult(String hunterName, String mode, Outcome outcome, int turns, int gold, int treasures) {
+        this.hunterName = hunterName;
+        this.mode = mode;
+        this.outcome = outcome;
+        this.turns = turns;
+        this.gold = gold;
+        this.treasures = treasures;
+    }
+
+    // accessors
+    public String getHunterName() {
+        return hunterName;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isWin() {
+        return outcome == Outcome.WON;
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    public int getGold() {
+        return gold;
+    }
+
+    public int getTreasures() {
+        return treasures;
+    }
+
+    public String toString() {
+        return hunterName + " " + outcome + " after " + turns + " turns with " + gold + " gold";
+    }
+}
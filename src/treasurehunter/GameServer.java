@@ -0,0 +1,233 @@
+package treasurehunter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The GameServer class hosts Treasure Hunter over a plain TCP socket, so it can be played with telnet or nc. <p>
+ * Every connection gets its own session (TreasureHunter, Hunter and Town) wired to the connection's
+ * input and output streams, running on its own virtual thread. An idle player is just a parked
+ * virtual thread blocked on a read, so the server can hold many thousands of connections. <p>
+ * When a log directory is given, every session is recorded there as a game log (see GameLogWriter),
+ * and every finished game goes on the leaderboard kept in the same directory (see Leaderboard).
+ * When a world file is given, every session plays in that one world at the same time, racing the
+ * other players for its treasures and brawling with them (see SharedWorld). Each session saves
+ * its game to a file of its own, in the log directory or a temporary one, and the file is deleted
+ * when the player leaves.
+ */
+
+public class GameServer {
+    // constants
+    private static final int DEFAULT_PORT = 4444;
+    private static final int INPUT_BUFFER = 256;
+    private static final int OUTPUT_BUFFER = 2048;
+
+    // instance variables
+    private int port;
+    private Path logDirectory;
+    private Path saveDirectory;
+    private ServerSocket serverSocket;
+    private ExecutorService sessions;
+    private AtomicLong sessionCount;
+    private Leaderboard leaderboard;
+    private SharedWorld sharedWorld;
+    private boolean townPrices;
+
+    /**
+     * @param port The port to listen on, or 0 for any free port.
+     * @param logDirectory Where to record each session, or null to not record them.
+     */
+    public GameServer(int port, Path logDirectory) {
+        this.port = port;
+        this.logDirectory = logDirectory;
+        sessionCount = new AtomicLong();
+    }
+
+    /**
+     * @param leaderboard Where every session's finished games are recorded, or null to not record them.
+     */
+    public void setLeaderboard(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+
+    /**
+     * @param sharedWorld The world every session plays in together, or null for each to have their own towns.
+     */
+    public void setSharedWorld(SharedWorld sharedWorld) {
+        this.sharedWorld = sharedWorld;
+    }
+
+    /**
+     * @param townPrices Whether each town's shop has prices of its own (see Shop.withTownPrices()).
+     */
+    public void setTownPrices(boolean townPrices) {
+        this.townPrices = townPrices;
+    }
+
+    /**
+     * Opens the listening socket.
+     *
+     * @throws IOException if the port can't be bound.
+     */
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(port, 1024);
+        saveDirectory = logDirectory != null ? logDirectory : Files.createTempDirectory("treasurehunter");
+        sessions = newVirtualThreadExecutor();
+    }
+
+    /**
+     * @return The port the server is listening on.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed, starting a session for each one.
+     */
+    public void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.execute(() -> runSession(socket));
+            } catch (IOException e) {
+                // the socket was closed or the accept failed; the loop condition decides
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections and stops the running sessions.
+     */
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // already closed
+        }
+        sessions.shutdownNow();
+    }
+
+    /**
+     * Plays games with one connected player until they quit or disconnect.
+     *
+     * @param socket The player's connection.
+     */
+    private void runSession(Socket socket) {
+        long seed = new SplittableRandom().nextLong();
+        // the seed is random, so no other session, in this run or any other, saves to the same file
+        Path saveFile = saveDirectory.resolve("save-" + Long.toHexString(seed) + ".sav");
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            OutputSink out = new TerminalSink(socket.getOutputStream(), OUTPUT_BUFFER);
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), INPUT_BUFFER);
+            Player player = new ConsolePlayer(in, out);
+            if (logDirectory == null) {
+                new TreasureHunter(newContext(player, out, seed, saveFile)).playSession();
+            } else {
+                try (GameLogWriter log = openLog(seed)) {
+                    player = new RecordingPlayer(player, log);
+                    new TreasureHunter(newContext(player, out, seed, saveFile)).playSession();
+                }
+            }
+        } catch (IOException e) {
+            // the player disconnected
+        }
+        try {
+            // nobody can get back to this session, so nobody can load its save
+            Files.deleteIfExists(saveFile);
+        } catch (IOException e) {
+            // leave it behind
+        }
+    }
+
+    /**
+     * Creates the next free session log, so the logs of earlier runs of the server are never
+     * overwritten: names already on disk are skipped, and the counter carries on after them.
+     *
+     * @param seed The session's seed.
+     * @return The new log.
+     * @throws IOException if the log can't be created.
+     */
+    private GameLogWriter openLog(long seed) throws IOException {
+        while (true) {
+            Path logFile = logDirectory.resolve("session-" + sessionCount.incrementAndGet() + ".thlog");
+            try {
+                return new GameLogWriter(logFile, seed, townPrices, sharedWorld != null, false);
+            } catch (FileAlreadyExistsException e) {
+                // recorded by an earlier run; try the next name
+            }
+        }
+    }
+
+    private GameContext newContext(Player player, OutputSink out, long seed, Path saveFile) {
+        GameContext context = new GameContext(player, out, seed);
+        context.setSaveFile(saveFile);
+        context.setLeaderboard(leaderboard);
+        context.setTownPrices(townPrices);
+        if (sharedWorld != null) {
+            context.setSharedWorld(sharedWorld);
+        }
+        return context;
+    }
+
+    /**
+     * Runs each task on a virtual thread when the JVM supports them, and falls back to
+     * a pool of platform threads on older JVMs.
+     *
+     * @return The executor to run sessions on.
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Starts a server.
+     *
+     * @param args Optional: the port to listen on, a directory to record sessions in (or - for none),
+     *             and a world file for every session to share.
+     * @throws IOException if the port can't be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Path logDirectory = args.length > 1 && !args[1].equals("-") ? Paths.get(args[1]) : null;
+        GameServer server = new GameServer(port, logDirectory);
+        server.setTownPrices(Boolean.getBoolean(GameContext.TOWN_PRICES_PROPERTY));
+        if (logDirectory != null) {
+            Leaderboard leaderboard = Leaderboard.open(logDirectory.resolve("leaderboard.thlb"));
+            server.setLeaderboard(leaderboard);
+            // write out the last games when the server is stopped
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    leaderboard.close();
+                } catch (IOException e) {
+                    System.err.println("Couldn't write the leaderboard: " + e.getMessage());
+                }
+            }));
+        }
+        if (args.length > 2) {
+            World world = World.open(Paths.get(args[2]), new SplittableRandom().nextLong(), World.DEFAULT_TOWNS);
+            server.setSharedWorld(new SharedWorld(world));
+        }
+        server.start();
+        System.out.println("Treasure Hunter server listening on port " + server.getPort());
+        server.serve();
+    }
+}
@@ -0,0 +1,556 @@
+package treasurehunter;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+
+/**
+ * The GameSession class is one game of Treasure Hunter, played a turn at a time by whoever
+ * holds it. <p>
+ * A session is started from a GameConfig (or, by TreasureHunter, from a context whose player has
+ * already answered the welcome prompts), and each call to step() plays one GameAction and says what
+ * it did in a TurnOutcome: the change in gold, the item that broke, the treasure that was found, and
+ * how the game ended once it has. Between steps the hunter and the town can be looked at through
+ * the read-only queries. <p>
+ * Nothing here reads input. The console game (TreasureHunter) is one client of this class: it
+ * asks its Player for a menu option, turns it into an action and prints the town's news. A bot or
+ * test harness can play millions of turns in-process by stepping actions directly.
+ */
+
+public class GameSession {
+    // instance variables
+    private GameContext context;
+    private OutputSink out;
+    private Hunter hunter;
+    private Town currentTown;
+    private int currentTownId;
+    private boolean dug;
+    private int turns;
+    private SharedWorld.Rival rival;
+    private TurnOutcome outcome;
+    private GameResult result;
+
+    /**
+     * Starts a game with no Player; every trade has to name its item.
+     *
+     * @param config The hunter's name, the mode, the seed and any other settings.
+     */
+    public GameSession(GameConfig config) {
+        this(config.newContext(), config.getHunterName());
+    }
+
+    /**
+     * Starts a game in a context whose mode has already been chosen: creates the hunter and
+     * enters the first town.
+     *
+     * @param context The game's settings, output and random numbers.
+     * @param hunterName The hunter's name.
+     */
+    public GameSession(GameContext context, String hunterName) {
+        this.context = context;
+        out = context.getOut();
+        outcome = new TurnOutcome();
+        context.setLose(false);
+        if (context.getWorld() != null) {
+            currentTownId = context.getWorld().getStartTown();
+        }
+
+        if (context.getTestMode()) {
+            hunter = new Hunter(hunterName, 100, context);
+            hunter.setKit();
+        } else if (context.getEasyMode()) {
+            hunter = new Hunter(hunterName, 20, context);
+        } else {
+            hunter = new Hunter(hunterName, 10, context);
+        }
+        if (context.getSharedWorld() != null) {
+            rival = context.getSharedWorld().join(hunter.getHunterName(), hunter.getGold());
+        }
+        enterTown();
+    }
+
+    /**
+     * Carries on a captured game (see GameState.resume()).
+     *
+     * @param state The game as it was captured.
+     * @param context A fresh context with the state's settings and random numbers.
+     */
+    GameSession(GameState state, GameContext context) {
+        this.context = context;
+        out = context.getOut();
+        outcome = new TurnOutcome();
+        context.setLose(false);
+        turns = state.getTurns();
+        dug = state.isDug();
+        hunter = Hunter.restore(state, context);
+        currentTown = Town.restore(state, context);
+        currentTown.hunterArrives(hunter);
+        currentTown.setLatestNews(state.getLatestNews());
+    }
+
+    /**
+     * Freezes the game as it is now. This takes constant time, whatever has happened in the game. <p>
+     * The game's generator is reseeded, as when it is saved, so this session and every session
+     * resumed from the state go on to draw the same random numbers.
+     *
+     * @return The state of the game.
+     * @throws IllegalStateException if the game is over or is played in a World.
+     */
+    public GameState capture() {
+        if (result != null) {
+            throw new IllegalStateException("The game is over: " + result);
+        }
+        if (context.getWorld() != null) {
+            throw new IllegalStateException("A game in a world can't be captured; its towns belong to every game in the world");
+        }
+        return new GameState(context, turns, dug, hunter, currentTown);
+    }
+
+    /**
+     * Freezes the game as it is now, with random numbers of its own, leaving this game's generator
+     * alone. A player looking ahead uses this, so it can't see which way the game's own dice will fall.
+     *
+     * @param randomSeed The seed for the state's random numbers.
+     * @return The state of the game.
+     * @throws IllegalStateException if the game is over or is played in a World.
+     */
+    public GameState capture(long randomSeed) {
+        if (result != null) {
+            throw new IllegalStateException("The game is over: " + result);
+        }
+        if (context.getWorld() != null) {
+            throw new IllegalStateException("A game in a world can't be captured; its towns belong to every game in the world");
+        }
+        return new GameState(context.getModeName(), context.getSeed(), context.getMaxTurns(), context.getTownPrices(),
+                randomSeed, turns, dug, hunter, currentTown);
+    }
+
+    /**
+     * Branches the game: the new session starts from this moment and goes its own way, without
+     * any output.
+     *
+     * @return The new session.
+     * @throws IllegalStateException if the game can't be captured (see capture()).
+     */
+    public GameSession fork() {
+        return capture().resume();
+    }
+
+    // accessors
+    /**
+     * @return The mode, as answered to the mode prompt: "h", "e", "s", "test" or "n".
+     */
+    public String getMode() {
+        return context.getModeName();
+    }
+
+    public String getHunterName() {
+        return hunter.getHunterName();
+    }
+
+    public int getGold() {
+        return hunter.getGold();
+    }
+
+    /**
+     * @param item An item's ordinal (see Items).
+     * @return true if the hunter is carrying it.
+     */
+    public boolean hasItem(int item) {
+        return hunter.hasItemInKit(item);
+    }
+
+    /**
+     * @return The items the hunter is carrying, as a bitmask of item ordinals.
+     */
+    public long getKit() {
+        return hunter.getKitItems();
+    }
+
+    public int getTreasureCount() {
+        return hunter.getTreasureCount();
+    }
+
+    public boolean hasAllTreasures() {
+        return hunter.hasAllTreasures();
+    }
+
+    public Terrain getTerrain() {
+        return currentTown.getTerrain();
+    }
+
+    public boolean isToughTown() {
+        return currentTown.isToughTown();
+    }
+
+    /**
+     * @return true if the current town has already been searched for treasure.
+     */
+    public boolean isSearched() {
+        return currentTown.isSearched();
+    }
+
+    /**
+     * @return true if the hunter has already dug in the current town.
+     */
+    public boolean isDug() {
+        return dug;
+    }
+
+    /**
+     * @param item An item's ordinal.
+     * @param isBuying Whether the hunter would be buying or selling.
+     * @return The current town's price for the item, or 0 if the shop doesn't deal in it.
+     */
+    public int getPrice(int item, boolean isBuying) {
+        return currentTown.getShop().checkMarketPrice(item, isBuying);
+    }
+
+    /**
+     * @return The text of what happened in town on the last turn; it is kept whether or not the
+     *         game's output is switched on.
+     */
+    public String getLatestNews() {
+        return currentTown.getLatestNews();
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    public boolean isOver() {
+        return result != null;
+    }
+
+    /**
+     * @return How the game ended, or null if it hasn't.
+     */
+    public GameResult getResult() {
+        return result;
+    }
+
+    /**
+     * @return The hunter, for a Player choosing the next move.
+     */
+    Hunter getHunter() {
+        return hunter;
+    }
+
+    /**
+     * @return The current town, for a Player choosing the next move.
+     */
+    Town getTown() {
+        return currentTown;
+    }
+
+    /**
+     * Plays one turn.
+     *
+     * @param action What the hunter does.
+     * @return What the turn did; the same object is filled in again by the next step.
+     * @throws IllegalStateException if the game is already over, or a shop action needs a Player and there isn't one.
+     */
+    public TurnOutcome step(GameAction action) {
+        if (result != null) {
+            throw new IllegalStateException("The game is over: " + result);
+        }
+        if (action.getItem() == Items.NONE && context.getPlayer() == null
+                && (action.getKind() == GameAction.Kind.BUY || action.getKind() == GameAction.Kind.SELL)) {
+            throw new IllegalStateException("There is no Player to ask what to trade; use GameAction.buy() or sell()");
+        }
+        outcome.reset(action);
+        int goldBefore = hunter.getGold();
+        long kitBefore = hunter.getKitItems();
+        int treasuresBefore = hunter.getTreasureCount();
+
+        processChoice(action);
+        turns++;
+
+        if (outcome.hasMoved()) {
+            // whatever went missing on the way out of town broke crossing the terrain
+            long lost = kitBefore & ~hunter.getKitItems();
+            outcome.setItemLost(lost == 0 ? Items.NONE : Long.numberOfTrailingZeros(lost));
+        }
+        if (hunter.getTreasureCount() > treasuresBefore) {
+            outcome.setTreasureFound(hunter.getTreasure(treasuresBefore));
+        }
+
+        if (hunter.hasAllTreasures()) {
+            outcome.setResult(endGame(GameResult.Outcome.WON));
+        } else if (action.getKind() == GameAction.Kind.QUIT) {
+            outcome.setResult(endGame(GameResult.Outcome.QUIT));
+        } else {
+            if (rival != null) {
+                settleBrawls();
+            }
+            if (context.getLose()) {
+                outcome.setResult(endGame(GameResult.Outcome.LOST));
+            } else if (context.getMaxTurns() > 0 && turns >= context.getMaxTurns()) {
+                outcome.setResult(endGame(GameResult.Outcome.QUIT));
+            }
+        }
+        // including what was settled with other hunters
+        outcome.setGoldDelta(hunter.getGold() - goldBefore);
+        return outcome;
+    }
+
+    /**
+     * Carries out an action.
+     *
+     * @param action The action to process.
+     */
+    private void processChoice(GameAction action) {
+        long start = GameMetrics.start();
+        switch (action.getKind()) {
+            case BUY:
+            case SELL:
+                boolean isBuying = action.getKind() == GameAction.Kind.BUY;
+                if (action.getItem() == Items.NONE) {
+                    currentTown.enterShop(isBuying ? "b" : "s");
+                } else {
+                    currentTown.trade(action.getItem(), isBuying);
+                }
+                break;
+            case MOVE:
+                if (currentTown.leaveTown()) {
+                    // This town is going away so print its news ahead of time.
+                    out.println(currentTown.getLatestNews());
+                    dug = false;
+                    if (context.getWorld() != null) {
+                        // take one of the roads out of town
+                        currentTownId = context.getWorld().road(currentTownId, context.getRandom().nextInt(World.ROADS));
+                    }
+                    enterTown();
+                    outcome.setMoved(true);
+                }
+                break;
+            case LOOK_FOR_TROUBLE:
+                currentTown.lookForTrouble();
+                break;
+            case HUNT:
+                currentTown.huntForTreasure();
+                break;
+            case DIG:
+                if (!dug && hunter.hasItemInKit(Items.SHOVEL)) {
+                    dug = true;
+                    if (context.getWorld() == null || context.getWorld().claimDig(currentTownId)) {
+                        currentTown.digTreasure();
+                    } else {
+                        // another hunter in a shared world dug here since this one arrived
+                        out.println("Another hunter has already dug here.");
+                    }
+                } else if (dug) {
+                    out.println("You already dug for gold in this town.");
+                } else {
+                    out.println("You can't dig for gold without a shovel.");
+                }
+                break;
+            case SAVE:
+                saveGame();
+                break;
+            case LOAD:
+                loadGame();
+                break;
+            case QUIT:
+                if (out.isEnabled()) {
+                    out.println("Fare thee well, " + hunter.getHunterName() + "!");
+                }
+                break;
+            default:
+                out.println("Yikes! That's an invalid option! Try again.");
+                break;
+        }
+        GameMetrics.record(GameMetrics.PROCESS_CHOICE, start);
+    }
+
+    /**
+     * Creates a new town, or enters the current town of the world, and adds the Hunter to it.
+     */
+    private void enterTown() {
+        double markdown = 0.50;
+        double toughness = 0.4;
+        if (context.getHardMode()) {
+            // in hard mode, you get less money back when you sell items
+            markdown = 0.25;
+
+            // and the town is "tougher"
+            toughness = 0.75;
+        }
+
+        World world = context.getWorld();
+        if (world != null) {
+            // the world already knows what this town is like
+            currentTown = world.townAt(currentTownId, markdown, toughness, context);
+            world.markVisited(currentTownId);
+            dug = world.isDug(currentTownId);
+            if (rival != null) {
+                context.getSharedWorld().moveTo(rival, currentTownId);
+                currentTown.shareWith(context.getSharedWorld(), rival);
+            }
+            currentTown.hunterArrives(hunter);
+            return;
+        }
+
+        if (context.getTownPrices()) {
+            // the shop's prices depend on whether the town turns out to be tough, so the town builds it
+            currentTown = Town.withTownPrices(markdown, toughness, context, context.getRandom(), context.getRandom());
+        } else {
+            // note that we don't need to access the Shop object
+            // outside of this method, so it isn't necessary to store it as an instance
+            // variable; we can leave it as a local variable
+            Shop shop = new Shop(markdown, context);
+
+            // creating the new Town -- which we need to store as an instance
+            // variable in this class, since we need to access the Town
+            // object in other methods of this class
+            currentTown = new Town(shop, toughness, context);
+        }
+
+        // calling the hunterArrives method, which takes the Hunter
+        // as a parameter; note this also could have been done in the
+        // constructor for Town, but this illustrates another way to associate
+        // an object with an object of a different class
+        currentTown.hunterArrives(hunter);
+    }
+
+    /**
+     * Pays and collects the gold won or lost in brawls with other hunters in a shared world.
+     */
+    private void settleBrawls() {
+        int owed = context.getSharedWorld().settle(rival, hunter.getGold());
+        if (owed != 0) {
+            hunter.changeGold(owed);
+            if (owed > 0) {
+                out.println("Other hunters paid you the " + Colors.YELLOW + owed + " gold" + Colors.RESET + " they owed you from brawls.");
+            } else {
+                out.println("Other hunters beat you in brawls and took " + Colors.YELLOW + -owed + " gold." + Colors.RESET);
+            }
+        }
+    }
+
+    /**
+     * Packages up the state of the finished game.
+     *
+     * @param outcome How the game ended.
+     * @return The result of the game.
+     */
+    private GameResult endGame(GameResult.Outcome outcome) {
+        if (rival != null) {
+            // once out of the world nobody can claim any more, so settling up now pays every claim
+            // made on this hunter and collects everything paid in, before the final gold is counted
+            context.getSharedWorld().leave(rival);
+            settleBrawls();
+            rival = null;
+        }
+        result = new GameResult(hunter.getHunterName(), context.getModeName(), outcome, turns,
+                hunter.getGold(), hunter.getTreasureCount());
+        if (context.getLeaderboard() != null) {
+            context.getLeaderboard().record(result);
+        }
+        return result;
+    }
+
+    /**
+     * Writes a snapshot of the game in progress (see GameSnapshot).
+     *
+     * @param snapshot Where to write; it needs room for GameSnapshot.maxSize() bytes.
+     */
+    public void save(ByteBuffer snapshot) {
+        GameSnapshot.putHeader(snapshot);
+        context.writeTo(snapshot);
+        snapshot.putInt(turns).put((byte) (dug ? 1 : 0)).putInt(currentTown.getTownId());
+        hunter.writeTo(snapshot);
+        currentTown.writeTo(snapshot);
+    }
+
+    /**
+     * Replaces the game in progress with a saved one, which then carries on from where it was saved.
+     *
+     * The whole snapshot is read before anything is replaced, so a snapshot that can't be loaded
+     * leaves the game in progress as it was.
+     *
+     * @param snapshot The saved game.
+     * @throws IllegalArgumentException if the snapshot isn't a saved game, is cut short or corrupt,
+     *                                  or was saved in a world when this game isn't in one, or the other way round.
+     */
+    public void load(ByteBuffer snapshot) {
+        GameSnapshot.checkHeader(snapshot);
+        GameContext saved = new GameContext(null, NullSink.INSTANCE, 0);
+        int savedTurns;
+        boolean savedDug;
+        int savedTownId;
+        Hunter savedHunter;
+        Town savedTown;
+        try {
+            saved.readFrom(snapshot);
+            savedTurns = snapshot.getInt();
+            savedDug = snapshot.get() != 0;
+            savedTownId = snapshot.getInt();
+            savedHunter = Hunter.readFrom(snapshot, context);
+            savedTown = Town.readFrom(snapshot, context);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("The saved game is cut short");
+        }
+        if (snapshot.hasRemaining()) {
+            throw new IllegalArgumentException("The saved game has " + snapshot.remaining() + " bytes too many");
+        }
+        // a game saved in a world only carries on in a world with its town, and one saved outside a world only outside one
+        World world = context.getWorld();
+        if (world == null && savedTownId != -1) {
+            throw new IllegalArgumentException("The saved game was played in a world");
+        }
+        if (world != null && savedTownId < 0) {
+            throw new IllegalArgumentException("The saved game wasn't played in a world");
+        }
+        if (world != null && savedTownId >= world.getTownCount()) {
+            throw new IllegalArgumentException("The saved game's town " + savedTownId + " isn't in this world");
+        }
+
+        // everything has been read, so now the game in progress can be replaced
+        context.restoreFrom(saved);
+        turns = savedTurns;
+        dug = savedDug;
+        currentTownId = savedTownId;
+        hunter = savedHunter;
+        currentTown = savedTown;
+        if (world != null) {
+            currentTown.placeInWorld(world, currentTownId);
+            if (rival != null) {
+                context.getSharedWorld().moveTo(rival, currentTownId);
+                currentTown.shareWith(context.getSharedWorld(), rival);
+            }
+        }
+        currentTown.hunterArrives(hunter);
+        result = null;
+    }
+
+    /**
+     * Saves the game to the session's save file.
+     */
+    private void saveGame() {
+        ByteBuffer snapshot = ByteBuffer.allocate(GameSnapshot.maxSize(hunter.getHunterName()));
+        save(snapshot);
+        snapshot.flip();
+        try {
+            GameSnapshot.write(context.getSaveFile(), snapshot);
+            out.println("Your game has been saved.");
+        } catch (IOException e) {
+            out.println("Your game couldn't be saved: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the game in the session's save file.
+     */
+    private void loadGame() {
+        try {
+            load(GameSnapshot.read(context.getSaveFile()));
+            out.println("Welcome back, " + hunter.getHunterName() + "!");
+        } catch (NoSuchFileException e) {
+            out.println("There's no saved game to load.");
+        } catch (IOException | RuntimeException e) {
+            out.println("That saved game couldn't be loaded: " + e.getMessage());
+        }
+    }
+}
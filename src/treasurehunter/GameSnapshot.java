@@ -0,0 +1,126 @@
+package treasurehunter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The GameSnapshot class describes the binary format of a saved game and reads and writes
+ * snapshot files (see TreasureHunter.save() and load()). <p>
+ * A snapshot is a fixed header followed by each part of the game writing its own fields:
+ * <pre>
+ * header:  int MAGIC, byte VERSION
+ * context: long seed, long random seed, byte mode flags, int maxTurns
+ * game:    int turns, byte dug, int town id
+ * hunter:  text name, int gold, byte kit capacity, long kit, byte treasure count, text treasures
+ * town:    text terrain, byte needed item, byte flags (tough, searched), text treasure, shop
+ * shop:    double markdown, byte item count, short buy price and short sell price per item
+ * </pre>
+ * Text is a short length followed by UTF-8. A snapshot is a few dozen bytes, so writing or
+ * reading one is a handful of buffer operations and one small file write. <p>
+ * The random numbers aren't saved as they are: saving starts the game on a fresh generator
+ * and records its seed, so the saved game and the one that carries on draw the same numbers.
+ */
+
+public class GameSnapshot {
+    // constants
+    public static final int MAGIC = 0x54485356;
+    public static final byte VERSION = 1;
+
+    /**
+     * Writes a snapshot to a file, replacing anything already there.
+     *
+     * @param file The save file.
+     * @param snapshot The snapshot, from its position to its limit.
+     * @throws IOException if the file can't be written.
+     */
+    public static void write(Path file, ByteBuffer snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Reads a snapshot file.
+     *
+     * @param file The save file.
+     * @return The snapshot, ready to load.
+     * @throws IOException if the file can't be read.
+     */
+    public static ByteBuffer read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer snapshot = ByteBuffer.allocate((int) channel.size());
+            while (snapshot.hasRemaining() && channel.read(snapshot) >= 0) {
+                // keep reading until the whole file is in
+            }
+            snapshot.flip();
+            return snapshot;
+        }
+    }
+
+    /**
+     * Writes the snapshot header.
+     */
+    static void putHeader(ByteBuffer snapshot) {
+        snapshot.putInt(MAGIC).put(VERSION);
+    }
+
+    /**
+     * Reads and checks the snapshot header.
+     *
+     * @throws IllegalArgumentException if the snapshot isn't one this version can load.
+     */
+    static void checkHeader(ByteBuffer snapshot) {
+        if (snapshot.remaining() < 5 || snapshot.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a Treasure Hunter saved game");
+        }
+        byte version = snapshot.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported saved game version " + version);
+        }
+    }
+
+    static void putText(ByteBuffer snapshot, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        snapshot.putShort((short) bytes.length).put(bytes);
+    }
+
+    static String getText(ByteBuffer snapshot) {
+        byte[] bytes = new byte[snapshot.getShort() & 0xFFFF];
+        snapshot.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Works out the most room each part of the format above can take with the catalog in use
+     * (see Catalog): its terrain and treasure names, and a buy and sell price for each of its items.
+     *
+     * @param name The hunter's name.
+     * @return A buffer size that any snapshot of a game with this hunter fits in.
+     */
+    static int maxSize(String name) {
+        Catalog catalog = Catalog.get();
+        int longest = 0;
+        for (Terrain terrain : catalog.getTerrains()) {
+            longest = Math.max(longest, terrain.getTerrainName().length());
+        }
+        for (int treasure = 0; treasure < catalog.getTreasureCount(); treasure++) {
+            longest = Math.max(longest, catalog.getTreasure(treasure).length());
+        }
+        // a char takes at most 3 bytes of UTF-8
+        int text = 2 + 3 * longest;
+        int header = 4 + 1;
+        int context = 8 + 8 + 1 + 4;
+        int game = 4 + 1 + 4;
+        int hunter = 2 + 3 * name.length() + 4 + 1 + 8 + 1 + catalog.getTreasureCount() * text;
+        int town = text + 1 + 1 + text;
+        int shop = 8 + 1 + 4 * catalog.getItemCount();
+        return header + context + game + hunter + town + shop;
+    }
+}
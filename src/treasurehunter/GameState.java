@@ -0,0 +1,242 @@
+package treasurehunter;
+
+/**
+ * The GameState class is a game frozen at one moment: the hunter, the town and the random numbers,
+ * along with the game's settings. It never changes, so it can be kept, shared and resumed as often
+ * as anybody likes. <p>
+ * A state is captured from a GameSession in constant time, and it holds on to the game's own
+ * values rather than copies. The kit is a bitmask, the treasures are a TreasureList that later
+ * treasures only add onto, the shop's price tables never change, and the random numbers are one
+ * seed (see GameContext.reseed()). Forking a game is resuming its state as a new session, and
+ * every session resumed from the state carries on independently from the same point. A state is a
+ * hundred or so bytes of its own, so thousands of branches of one game take kilobytes. <p>
+ * A state resumed twice plays the same random numbers both times; reseed() gives a branch random
+ * numbers of its own, for sampling many different futures of the same moment. <p>
+ * The towns of a World are shared by every game in it, so games in a world can't be captured.
+ */
+
+public final class GameState {
+    // instance variables
+    private final String mode;
+    private final long seed;
+    private final int maxTurns;
+    private final boolean townPrices;
+    private final long randomSeed;
+    private final int turns;
+    private final boolean dug;
+
+    // the hunter
+    private final String hunterName;
+    private final int gold;
+    private final int kitCapacity;
+    private final long kit;
+    private final TreasureList treasures;
+
+    // the town and its shop
+    private final Terrain terrain;
+    private final boolean toughTown;
+    private final boolean searched;
+    private final String hiddenTreasure;
+    private final String news;
+    private final double markdown;
+    private final int[] buyPrices;
+    private final int[] sellPrices;
+
+    /**
+     * Captures a game in progress (see GameSession.capture()).
+     *
+     * @param context The game's context; its generator is reseeded.
+     * @param turns The turns played so far.
+     * @param dug Whether the hunter has dug in this town.
+     * @param hunter The hunter.
+     * @param town The town the hunter is in.
+     */
+    GameState(GameContext context, int turns, boolean dug, Hunter hunter, Town town) {
+        this(context.getModeName(), context.getSeed(), context.getMaxTurns(), context.getTownPrices(), context.reseed(),
+                turns, dug, hunter, town);
+    }
+
+    /**
+     * Captures a game from its parts, with random numbers that don't have to be the game's own, as
+     * a player does when it looks ahead (see MctsPlayer).
+     *
+     * @param mode The mode, as answered to the mode prompt.
+     * @param seed The game's seed.
+     * @param maxTurns The most turns the game may last, or 0 for no limit.
+     * @param townPrices Whether each town's shop has prices of its own.
+     * @param randomSeed The seed for the random numbers from here on.
+     * @param turns The turns played so far.
+     * @param dug Whether the hunter has dug in this town.
+     * @param hunter The hunter.
+     * @param town The town the hunter is in.
+     */
+    GameState(String mode, long seed, int maxTurns, boolean townPrices, long randomSeed, int turns, boolean dug,
+              Hunter hunter, Town town) {
+        this.mode = mode;
+        this.seed = seed;
+        this.maxTurns = maxTurns;
+        this.townPrices = townPrices;
+        this.randomSeed = randomSeed;
+        this.turns = turns;
+        this.dug = dug;
+
+        hunterName = hunter.getHunterName();
+        gold = hunter.getGold();
+        kitCapacity = hunter.getKitCapacity();
+        kit = hunter.getKitItems();
+        treasures = hunter.getTreasureList();
+
+        terrain = town.getTerrain();
+        toughTown = town.isToughTown();
+        searched = town.isSearched();
+        hiddenTreasure = town.getHiddenTreasure();
+        news = town.getLatestNews();
+        Shop shop = town.getShop();
+        markdown = shop.getMarkdown();
+        buyPrices = shop.getBuyPrices();
+        sellPrices = shop.getSellPrices();
+    }
+
+    /**
+     * Copies a state with different random numbers and hidden treasure; everything else is shared.
+     */
+    private GameState(GameState state, long randomSeed, String hiddenTreasure) {
+        mode = state.mode;
+        seed = state.seed;
+        maxTurns = state.maxTurns;
+        townPrices = state.townPrices;
+        this.randomSeed = randomSeed;
+        turns = state.turns;
+        dug = state.dug;
+        hunterName = state.hunterName;
+        gold = state.gold;
+        kitCapacity = state.kitCapacity;
+        kit = state.kit;
+        treasures = state.treasures;
+        terrain = state.terrain;
+        toughTown = state.toughTown;
+        searched = state.searched;
+        this.hiddenTreasure = hiddenTreasure;
+        news = state.news;
+        markdown = state.markdown;
+        buyPrices = state.buyPrices;
+        sellPrices = state.sellPrices;
+    }
+
+    /**
+     * @param randomSeed The seed for the branch's random numbers.
+     * @return The same moment of the game, with its own random numbers from here on.
+     */
+    public GameState reseed(long randomSeed) {
+        return new GameState(this, randomSeed, hiddenTreasure);
+    }
+
+    /**
+     * Reseeds the state and also changes what hunting in the town will find, so a player looking
+     * ahead can guess at the treasure instead of knowing it.
+     *
+     * @param randomSeed The seed for the branch's random numbers.
+     * @param hiddenTreasure What hunting in the town finds in this branch.
+     * @return The same moment of the game, as far as the hunter can tell.
+     */
+    GameState reseed(long randomSeed, String hiddenTreasure) {
+        return new GameState(this, randomSeed, hiddenTreasure);
+    }
+
+    /**
+     * Carries on the game from this moment without any output.
+     *
+     * @return A new session, independent of every other session resumed from this state.
+     */
+    public GameSession resume() {
+        return resume(NullSink.INSTANCE);
+    }
+
+    /**
+     * Carries on the game from this moment.
+     *
+     * @param out Where the new session prints to.
+     * @return A new session, independent of every other session resumed from this state.
+     */
+    public GameSession resume(OutputSink out) {
+        GameContext context = new GameContext(null, out, seed);
+        context.setMode(mode);
+        context.setMaxTurns(maxTurns);
+        context.setTownPrices(townPrices);
+        context.restartRandom(randomSeed);
+        return new GameSession(this, context);
+    }
+
+    // accessors
+    public String getMode() {
+        return mode;
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    public boolean isDug() {
+        return dug;
+    }
+
+    public String getHunterName() {
+        return hunterName;
+    }
+
+    public int getGold() {
+        return gold;
+    }
+
+    /**
+     * @return The items the hunter is carrying, as a bitmask of item ordinals.
+     */
+    public long getKit() {
+        return kit;
+    }
+
+    public TreasureList getTreasures() {
+        return treasures;
+    }
+
+    public Terrain getTerrain() {
+        return terrain;
+    }
+
+    public boolean isToughTown() {
+        return toughTown;
+    }
+
+    public boolean isSearched() {
+        return searched;
+    }
+
+    public String getLatestNews() {
+        return news;
+    }
+
+    int getKitCapacity() {
+        return kitCapacity;
+    }
+
+    String getHiddenTreasure() {
+        return hiddenTreasure;
+    }
+
+    double getMarkdown() {
+        return markdown;
+    }
+
+    int[] getBuyPrices() {
+        return buyPrices;
+    }
+
+    int[] getSellPrices() {
+        return sellPrices;
+    }
+
+    public String toString() {
+        return hunterName + " after " + turns + " turns: " + gold + " gold, kit " + Long.toBinaryString(kit)
+                + ", treasures [" + treasures + "], in a " + (toughTown ? "tough " : "") + terrain.getTerrainName() + " town";
+    }
+}
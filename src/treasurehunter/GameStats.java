@@ -0,0 +1,283 @@
+package treasurehunter;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * The GameStats class keeps the distributions of a simulation's results in constant memory:
+ * how the games ended, how many turns the wins took, the gold the hunters finished with, what
+ * killed the hunters who died, and which items broke on the way out of town. <p>
+ * Nothing is kept per game. Counts go into counters and distributions into Histograms, so a
+ * billion games take the same space as one. A GameStats is filled by one thread at a time (put it
+ * on the GameContext so the town can report deaths and broken items, then add() each result), and
+ * the stats of different threads are combined with merge() once they're done. <p>
+ * The stats can be written out as CSV, one metric per row, or as JSON.
+ */
+
+public class GameStats {
+    /**
+     * What killed a hunter.
+     */
+    public enum Cause {
+        BRAWL_IN_TOWN, BRAWL_IN_TOUGH_TOWN, BRAWL_WITH_HUNTER
+    }
+
+    // constants
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    // instance variables
+    private long games;
+    private long wins;
+    private long losses;
+    private long quits;
+    private Histogram turnsToWin;
+    private Histogram finalGold;
+    private long[] deaths;
+    private Histogram goldShortAtDeath;
+    private long[] itemsLost;
+    private Histogram itemsLostPerGame;
+
+    // items broken so far in the game being played
+    private int itemsLostThisGame;
+
+    public GameStats() {
+        turnsToWin = new Histogram();
+        finalGold = new Histogram();
+        deaths = new long[Cause.values().length];
+        goldShortAtDeath = new Histogram();
+        itemsLost = new long[Items.count()];
+        itemsLostPerGame = new Histogram();
+    }
+
+    /**
+     * Counts a hunter's death in a brawl.
+     *
+     * @param cause Who did it.
+     * @param goldShort How much more gold the hunter needed to pay up.
+     */
+    public void killed(Cause cause, int goldShort) {
+        deaths[cause.ordinal()]++;
+        goldShortAtDeath.record(goldShort);
+    }
+
+    /**
+     * Counts an item that broke crossing the terrain out of town.
+     *
+     * @param item The item's ordinal.
+     */
+    public void itemLost(int item) {
+        itemsLost[item]++;
+        itemsLostThisGame++;
+    }
+
+    /**
+     * Adds a finished game; the deaths and broken items it reported are already counted.
+     *
+     * @param result How the game ended.
+     */
+    public void add(GameResult result) {
+        games++;
+        if (result.getOutcome() == GameResult.Outcome.WON) {
+            wins++;
+            turnsToWin.record(result.getTurns());
+        } else if (result.getOutcome() == GameResult.Outcome.LOST) {
+            losses++;
+        } else {
+            quits++;
+        }
+        finalGold.record(result.getGold());
+        itemsLostPerGame.record(itemsLostThisGame);
+        itemsLostThisGame = 0;
+    }
+
+    /**
+     * Adds another thread's stats into these.
+     *
+     * @param other The stats to merge in.
+     * @return these stats, for chaining.
+     */
+    public GameStats merge(GameStats other) {
+        games += other.games;
+        wins += other.wins;
+        losses += other.losses;
+        quits += other.quits;
+        turnsToWin.merge(other.turnsToWin);
+        finalGold.merge(other.finalGold);
+        for (int cause = 0; cause < deaths.length; cause++) {
+            deaths[cause] += other.deaths[cause];
+        }
+        goldShortAtDeath.merge(other.goldShortAtDeath);
+        for (int item = 0; item < itemsLost.length; item++) {
+            itemsLost[item] += other.itemsLost[item];
+        }
+        itemsLostPerGame.merge(other.itemsLostPerGame);
+        return this;
+    }
+
+    // accessors
+    public long getGames() {
+        return games;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getQuits() {
+        return quits;
+    }
+
+    public double getWinRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    public Histogram getTurnsToWin() {
+        return turnsToWin;
+    }
+
+    public Histogram getFinalGold() {
+        return finalGold;
+    }
+
+    public long getDeaths(Cause cause) {
+        return deaths[cause.ordinal()];
+    }
+
+    public Histogram getGoldShortAtDeath() {
+        return goldShortAtDeath;
+    }
+
+    /**
+     * @param item An item's ordinal.
+     * @return How many times it broke leaving town.
+     */
+    public long getItemsLost(int item) {
+        return itemsLost[item];
+    }
+
+    public Histogram getItemsLostPerGame() {
+        return itemsLostPerGame;
+    }
+
+    /**
+     * Writes the stats as CSV, with a header and one "metric,key,value" row per number.
+     *
+     * @param out Where to write.
+     * @throws IOException if writing fails.
+     */
+    public void writeCsv(Appendable out) throws IOException {
+        out.append("metric,key,value\n");
+        csvRow(out, "games", "count", games);
+        csvRow(out, "games", "won", wins);
+        csvRow(out, "games", "lost", losses);
+        csvRow(out, "games", "quit", quits);
+        csvRow(out, "games", "win_rate", format(getWinRate()));
+        csvHistogram(out, "turns_to_win", turnsToWin);
+        csvHistogram(out, "final_gold", finalGold);
+        for (Cause cause : Cause.values()) {
+            csvRow(out, "cause_of_death", cause.name().toLowerCase(), deaths[cause.ordinal()]);
+        }
+        csvHistogram(out, "gold_short_at_death", goldShortAtDeath);
+        for (int item = 0; item < itemsLost.length; item++) {
+            csvRow(out, "items_lost", Items.nameOf(item), itemsLost[item]);
+        }
+        csvHistogram(out, "items_lost_per_game", itemsLostPerGame);
+    }
+
+    private static void csvHistogram(Appendable out, String metric, Histogram histogram) throws IOException {
+        csvRow(out, metric, "count", histogram.getCount());
+        csvRow(out, metric, "mean", format(histogram.getMean()));
+        csvRow(out, metric, "min", histogram.getMin());
+        for (double quantile : QUANTILES) {
+            csvRow(out, metric, quantileName(quantile), histogram.quantile(quantile));
+        }
+        csvRow(out, metric, "max", histogram.getMax());
+    }
+
+    private static void csvRow(Appendable out, String metric, String key, Object value) throws IOException {
+        out.append(metric).append(',').append(key).append(',').append(String.valueOf(value)).append('\n');
+    }
+
+    /**
+     * Writes the stats as one JSON object.
+     *
+     * @param out Where to write.
+     * @throws IOException if writing fails.
+     */
+    public void writeJson(Appendable out) throws IOException {
+        out.append("{\n");
+        out.append("  \"games\": ").append(String.valueOf(games)).append(",\n");
+        out.append("  \"won\": ").append(String.valueOf(wins)).append(",\n");
+        out.append("  \"lost\": ").append(String.valueOf(losses)).append(",\n");
+        out.append("  \"quit\": ").append(String.valueOf(quits)).append(",\n");
+        out.append("  \"win_rate\": ").append(format(getWinRate())).append(",\n");
+        jsonHistogram(out, "turns_to_win", turnsToWin);
+        jsonHistogram(out, "final_gold", finalGold);
+        out.append("  \"cause_of_death\": {");
+        for (Cause cause : Cause.values()) {
+            out.append(cause.ordinal() == 0 ? "" : ", ").append('"').append(cause.name().toLowerCase()).append("\": ")
+                    .append(String.valueOf(deaths[cause.ordinal()]));
+        }
+        out.append("},\n");
+        jsonHistogram(out, "gold_short_at_death", goldShortAtDeath);
+        out.append("  \"items_lost\": {");
+        for (int item = 0; item < itemsLost.length; item++) {
+            out.append(item == 0 ? "" : ", ").append('"').append(Items.nameOf(item)).append("\": ")
+                    .append(String.valueOf(itemsLost[item]));
+        }
+        out.append("},\n");
+        out.append("  \"items_lost_per_game\": ");
+        jsonObject(out, itemsLostPerGame);
+        out.append("\n}\n");
+    }
+
+    private static void jsonHistogram(Appendable out, String metric, Histogram histogram) throws IOException {
+        out.append("  \"").append(metric).append("\": ");
+        jsonObject(out, histogram);
+        out.append(",\n");
+    }
+
+    private static void jsonObject(Appendable out, Histogram histogram) throws IOException {
+        out.append("{\"count\": ").append(String.valueOf(histogram.getCount()))
+                .append(", \"mean\": ").append(format(histogram.getMean()))
+                .append(", \"min\": ").append(String.valueOf(histogram.getMin()));
+        for (double quantile : QUANTILES) {
+            out.append(", \"").append(quantileName(quantile)).append("\": ").append(String.valueOf(histogram.quantile(quantile)));
+        }
+        out.append(", \"max\": ").append(String.valueOf(histogram.getMax())).append('}');
+    }
+
+    /**
+     * @return "p50" for 0.5, "p99" for 0.99 and so on.
+     */
+    private static String quantileName(double quantile) {
+        return "p" + Math.round(quantile * 100);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        str.append("turns to win: ").append(turnsToWin);
+        str.append("\nfinal gold: ").append(finalGold);
+        str.append("\ndeaths:");
+        for (Cause cause : Cause.values()) {
+            str.append(' ').append(cause.name().toLowerCase()).append('=').append(deaths[cause.ordinal()]);
+        }
+        str.append(" (gold short: ").append(goldShortAtDeath).append(')');
+        str.append("\nitems lost:");
+        for (int item = 0; item < itemsLost.length; item++) {
+            if (itemsLost[item] > 0) {
+                str.append(' ').append(Items.nameOf(item)).append('=').append(itemsLost[item]);
+            }
+        }
+        str.append(" (per game: ").append(itemsLostPerGame).append(')');
+        return str.toString();
+    }
+}
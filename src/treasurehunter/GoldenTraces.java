@@ -0,0 +1,367 @@
+package treasurehunter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The GoldenTraces class checks that the game still plays exactly as it did, so Town, Shop and
+ * Hunter can be changed for speed without changing the gameplay. <p>
+ * It plays a fixed corpus of seeded games in every mode, each driven by a scripted player whose
+ * answers come from the game's seed. Every mode is played three ways: as it comes, with town
+ * prices (see GameContext.setTownPrices()), and with "save" and "load" among the player's answers,
+ * so that games go through a save file and carry on from what was loaded. Before every turn, and
+ * once more when the game is over, the state of the game is fingerprinted: the hunter's gold, kit
+ * and treasures and the town's latest news. The fingerprints of a game, along with everything the game prints, are chained into one
+ * 64-bit digest, which is compared with the digest stored in the golden traces file. What a game
+ * prints goes into the digest too, since what hunting and digging turn up is printed rather than
+ * kept as news. <p>
+ * The games are independent, so they are played in parallel on the common fork-join pool. <p>
+ * Usage:
+ * <pre>
+ * GoldenTraces check [file]      play the corpus and compare it with the golden traces
+ * GoldenTraces record [file]     play the corpus and write new golden traces
+ * GoldenTraces trace mode seed   print every fingerprint of one game
+ * </pre>
+ * A mode with town prices is written "n+prices", and one with saves "n+saves". <p>
+ * The build runs the check in Maven's verify phase, so "mvn verify" fails when the gameplay changes.
+ * When a game no longer matches, tracing it on the old and new code and comparing the two shows the
+ * first turn where they part ways. Only record new traces when the gameplay is meant to change.
+ */
+
+public class GoldenTraces {
+    // constants
+    private static final String[] MODES = {"n", "h", "e", "s", "test"};
+    private static final String PRICES = "prices";
+    private static final String SAVES = "saves";
+    private static final String[] VARIANTS = {"", "+" + PRICES, "+" + SAVES};
+    private static final int GAMES_PER_MODE = 600;
+    private static final int GAMES = VARIANTS.length * MODES.length * GAMES_PER_MODE;
+    private static final int MAX_TURNS = 200;
+    private static final int GAMES_PER_TASK = 64;
+    private static final int MAX_REPORTED = 20;
+    private static final String DEFAULT_FILE = "golden-traces.txt";
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // the answers the scripted player chooses from; "zz" is an invalid option
+    private static final String[] ACTIONS = {"b", "s", "m", "l", "h", "d", "zz"};
+    private static final String[] ACTIONS_WITH_SAVES = {"b", "s", "m", "l", "h", "d", "zz", "save", "load"};
+
+    private GoldenTraces() {
+    }
+
+    /**
+     * Plays one game of the corpus.
+     *
+     * @param kind The mode to play, optionally followed by "+prices" or "+saves".
+     * @param seed The game's seed, which also drives the player's answers.
+     * @param log Where to print each fingerprint, or null.
+     * @return The game's trace line: kind, seed, how it ended, turns and digest.
+     */
+    static String playGame(String kind, long seed, PrintStream log) {
+        int plus = kind.indexOf('+');
+        String mode = plus < 0 ? kind : kind.substring(0, plus);
+        String variant = plus < 0 ? "" : kind.substring(plus + 1);
+        boolean saves = variant.equals(SAVES);
+
+        Fingerprint fingerprint = new Fingerprint(log);
+        ScriptedHunter player = new ScriptedHunter(mode, seed, fingerprint, saves ? ACTIONS_WITH_SAVES : ACTIONS);
+        GameContext context = new GameContext(player, fingerprint, seed);
+        context.setMaxTurns(MAX_TURNS);
+        context.setTownPrices(variant.equals(PRICES));
+        Path saveFile = null;
+        try {
+            if (saves) {
+                // an empty file of the game's own, so that loading before saving always says the same
+                saveFile = Files.createTempFile("golden", ".sav");
+                context.setSaveFile(saveFile);
+            }
+            TreasureHunter game = new TreasureHunter(context);
+            GameResult result = game.play();
+
+            GameSession session = game.getSession();
+            fingerprint.add(session.getHunter(), session.getLatestNews());
+            return kind + " " + seed + " " + result.getOutcome() + " " + result.getTurns() + " "
+                    + Long.toHexString(fingerprint.digest);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (saveFile != null) {
+                try {
+                    Files.deleteIfExists(saveFile);
+                } catch (IOException e) {
+                    // leave it behind
+                }
+            }
+        }
+    }
+
+    /**
+     * @param game A game's place in the corpus.
+     * @return The kind of game it is, for playGame(): every mode plain, then with each variant.
+     */
+    private static String kindOf(int game) {
+        int block = game / GAMES_PER_MODE;
+        return MODES[block % MODES.length] + VARIANTS[block / MODES.length];
+    }
+
+    /**
+     * Plays the whole corpus.
+     *
+     * @return Every game's trace line, in the order of VARIANTS, then MODES and then seed.
+     */
+    static String[] playCorpus() {
+        String[] traces = new String[GAMES];
+        ForkJoinPool.commonPool().invoke(new Batch(traces, 0, traces.length));
+        return traces;
+    }
+
+    /**
+     * A range of the corpus that is split in half until it is small enough to play directly.
+     */
+    private static class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private String[] traces;
+        private int from;
+        private int to;
+
+        Batch(String[] traces, int from, int to) {
+            this.traces = traces;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                for (int game = from; game < to; game++) {
+                    traces[game] = playGame(kindOf(game), game % GAMES_PER_MODE, null);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Batch(traces, from, middle), new Batch(traces, middle, to));
+        }
+    }
+
+    /**
+     * Chains the fingerprints of one game's turns into a digest (64-bit FNV-1a). <p>
+     * It is also where the game prints to, so everything the game says goes into the digest too.
+     */
+    private static class Fingerprint implements OutputSink {
+        private long digest = FNV_OFFSET;
+        private int turn;
+        private PrintStream log;
+
+        Fingerprint(PrintStream log) {
+            this.log = log;
+        }
+
+        /**
+         * Adds the state of the game at the start of a turn, or at the end of the game.
+         */
+        void add(Hunter hunter, String news) {
+            addInt(hunter.getGold());
+            addLong(hunter.getKitItems());
+            int treasures = hunter.getTreasureCount();
+            addInt(treasures);
+            for (int i = 0; i < treasures; i++) {
+                addString(hunter.getTreasure(i));
+            }
+            addString(news);
+            if (log != null) {
+                log.println("turn " + turn + ": gold " + hunter.getGold() + ", kit " + Long.toBinaryString(hunter.getKitItems())
+                        + ", treasures " + treasures + ", news \"" + news.replace("\n", "\\n") + "\" -> "
+                        + Long.toHexString(digest));
+            }
+            turn++;
+        }
+
+        public boolean isEnabled() {
+            return true;
+        }
+
+        public void print(String text) {
+            addString(text);
+        }
+
+        public void println(Object value) {
+            addString(String.valueOf(value));
+        }
+
+        public void println(String text) {
+            addString(text);
+        }
+
+        public void println() {
+            addInt('\n');
+        }
+
+        public void flush() {
+        }
+
+        private void addString(String text) {
+            if (text == null) {
+                addInt(-1);
+                return;
+            }
+            addInt(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                addInt(text.charAt(i));
+            }
+        }
+
+        private void addLong(long value) {
+            addInt((int) value);
+            addInt((int) (value >>> 32));
+        }
+
+        private void addInt(int value) {
+            digest = (digest ^ value) * FNV_PRIME;
+        }
+    }
+
+    /**
+     * Answers the game's prompts from the game's seed: any menu option (including an invalid one),
+     * any item in the catalog (or one that isn't), and yes or no to the price.
+     */
+    private static class ScriptedHunter implements Player {
+        private String mode;
+        private SplittableRandom random;
+        private Fingerprint fingerprint;
+        private String[] actions;
+
+        ScriptedHunter(String mode, long seed, Fingerprint fingerprint, String[] actions) {
+            this.mode = mode;
+            // the player's answers mustn't share a sequence with the game's own random numbers
+            random = new SplittableRandom(~seed);
+            this.fingerprint = fingerprint;
+            this.actions = actions;
+        }
+
+        public String chooseName() {
+            return "golden";
+        }
+
+        public String chooseMode() {
+            return mode;
+        }
+
+        public String chooseAction(Hunter hunter, Town town) {
+            fingerprint.add(hunter, town.getLatestNews());
+            return actions[random.nextInt(actions.length)];
+        }
+
+        public String chooseItem(Hunter hunter, Shop shop, boolean isBuying) {
+            int item = random.nextInt(Items.count() + 1);
+            return item == Items.count() ? "nothing" : Items.nameOf(item);
+        }
+
+        public boolean confirmTrade(String item, int cost, boolean isBuying) {
+            return random.nextInt(4) != 0;
+        }
+    }
+
+    /**
+     * Plays the corpus and compares it with the golden traces file.
+     *
+     * @param path The golden traces file.
+     * @return How many games don't match.
+     * @throws IOException if the file can't be read.
+     */
+    static int check(Path path) throws IOException {
+        List<String> golden = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                golden.add(line);
+            }
+        }
+        String[] traces = playCorpus();
+        if (golden.size() != traces.length) {
+            System.out.println("The golden traces have " + golden.size() + " games but the corpus has " + traces.length
+                    + "; record them again.");
+            return Math.abs(golden.size() - traces.length);
+        }
+
+        int mismatches = 0;
+        for (int game = 0; game < traces.length; game++) {
+            if (!traces[game].equals(golden.get(game))) {
+                mismatches++;
+                if (mismatches <= MAX_REPORTED) {
+                    System.out.println("expected " + golden.get(game));
+                    System.out.println("     got " + traces[game]);
+                }
+            }
+        }
+        if (mismatches > MAX_REPORTED) {
+            System.out.println("... and " + (mismatches - MAX_REPORTED) + " more");
+        }
+        return mismatches;
+    }
+
+    /**
+     * Plays the corpus and writes its traces as the new golden traces.
+     *
+     * @param path Where to write them.
+     * @throws IOException if the file can't be written.
+     */
+    static void record(Path path) throws IOException {
+        String[] traces = playCorpus();
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("# Golden traces for GoldenTraces: mode (and variant), seed, outcome, turns and digest of each game.");
+            writer.newLine();
+            writer.write("# Record them again only when the gameplay is meant to change.");
+            writer.newLine();
+            for (String trace : traces) {
+                writer.write(trace);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Checks or records the golden traces, or traces one game.
+     *
+     * @param args "check" or "record" and optionally the file, or "trace", a mode (with any variant) and a seed.
+     * @throws IOException if the golden traces file can't be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        String command = args.length > 0 ? args[0] : "check";
+        if (command.equals("trace") && args.length == 3) {
+            System.out.println(playGame(args[1], Long.parseLong(args[2]), System.out));
+            return;
+        }
+        if (!command.equals("check") && !command.equals("record")) {
+            System.out.println("usage: GoldenTraces check [file] | record [file] | trace <mode> <seed>");
+            return;
+        }
+        Path path = Paths.get(args.length > 1 ? args[1] : DEFAULT_FILE);
+
+        long start = System.nanoTime();
+        if (command.equals("record")) {
+            record(path);
+            System.out.printf("Recorded %d games to %s in %.2f s%n", GAMES, path,
+                    (System.nanoTime() - start) / 1e9);
+            return;
+        }
+        int mismatches = check(path);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (mismatches == 0) {
+            System.out.printf("All %d games match the golden traces (%.2f s)%n", GAMES, seconds);
+        } else {
+            System.out.printf("%d games don't match the golden traces (%.2f s)%n", mismatches, seconds);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package treasurehunter;
+
+/**
+ * The Histogram class counts a stream of non-negative whole numbers in a fixed number of buckets,
+ * so the distribution of millions of values takes the same few kilobytes as a handful. <p>
+ * Values below 64 each get their own bucket. Above that, every power of two is split into 32
+ * buckets, so a quantile is never off by more than about 3% of its value, like a log-linear
+ * quantile sketch. The count, sum, minimum and maximum are kept exactly. <p>
+ * Histograms are filled by one thread each and then added together with merge(), which gives
+ * the same counts as if every value had gone into one histogram.
+ */
+
+public class Histogram {
+    // constants
+    private static final int EXACT = 64;
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int EXACT_BITS = 6;
+    private static final int BUCKETS = EXACT + (31 - EXACT_BITS) * SUB_BUCKETS;
+
+    // instance variables
+    private long[] counts;
+    private long count;
+    private long sum;
+    private int min;
+    private int max;
+
+    public Histogram() {
+        counts = new long[BUCKETS];
+        min = Integer.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * Counts a value.
+     *
+     * @param value The value; anything below 0 is counted as 0.
+     */
+    public void record(int value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds another histogram's counts into this one.
+     *
+     * @param other The histogram to merge in.
+     * @return this histogram, for chaining.
+     */
+    public Histogram merge(Histogram other) {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts[bucket] += other.counts[bucket];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    // accessors
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return The smallest value counted, or 0 if there are none.
+     */
+    public int getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Estimates a quantile: the value that the given fraction of the values are at or below.
+     *
+     * @param fraction Between 0 and 1; 0.5 is the median.
+     * @return The middle of the bucket the quantile falls in, kept between the minimum and maximum,
+     *         or 0 if there are no values.
+     */
+    public int quantile(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                int middle = lowestIn(bucket) + (widthOf(bucket) - 1) / 2;
+                return Math.max(min, Math.min(max, middle));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @param value A non-negative value.
+     * @return The bucket it is counted in.
+     */
+    private static int bucketOf(int value) {
+        if (value < EXACT) {
+            return value;
+        }
+        int exponent = 31 - Integer.numberOfLeadingZeros(value);
+        int sub = (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return EXACT + (exponent - EXACT_BITS) * SUB_BUCKETS + sub;
+    }
+
+    private static int lowestIn(int bucket) {
+        if (bucket < EXACT) {
+            return bucket;
+        }
+        int exponent = (bucket - EXACT) / SUB_BUCKETS + EXACT_BITS;
+        int sub = (bucket - EXACT) % SUB_BUCKETS;
+        return (1 << exponent) + (sub << (exponent - SUB_BITS));
+    }
+
+    private static int widthOf(int bucket) {
+        if (bucket < EXACT) {
+            return 1;
+        }
+        return 1 << ((bucket - EXACT) / SUB_BUCKETS + EXACT_BITS - SUB_BITS);
+    }
+
+    public String toString() {
+        return String.format("n=%d mean=%.2f min=%d p50=%d p90=%d p99=%d max=%d",
+                count, getMean(), getMin(), quantile(0.5), quantile(0.9), quantile(0.99), getMax());
+    }
+}
@@ -0,0 +1,368 @@
+package treasurehunter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Hunter Class<br /><br />
+ * This class represents the treasure hunter character (the player) in the Treasure Hunt game.
+ * This code has been adapted from Ivan Turner's original program -- thank you Mr. Turner!
+ */
+
+public class Hunter {
+    // constants
+    private static final String[] NUMBERS = {"no", "one", "two", "three", "four", "five", "six", "seven", "eight", "nine", "ten"};
+
+    //instance variables
+    private GameContext context;
+    private String hunterName;
+    private Kit kit;
+    private TreasureList collectedTreasures;
+    private int treasureSlots;
+    private int gold;
+
+    /**
+     * The base constructor of a Hunter assigns the name to the hunter and an empty kit.
+     *
+     * @param hunterName The hunter's name.
+     * @param startingGold The gold the hunter starts with.
+     * @param context The game session the hunter belongs to.
+     */
+    public Hunter(String hunterName, int startingGold, GameContext context) {
+        this.context = context;
+        this.hunterName = hunterName;
+        Catalog catalog = Catalog.get();
+        kit = new Kit(catalog.getKitCapacity(context.getSamuraiMode()));
+        collectedTreasures = TreasureList.EMPTY;
+        treasureSlots = catalog.getWinningTreasureCount();
+        gold = startingGold;
+    }
+
+    /**
+     * Writes the hunter to a saved game (see GameSnapshot).
+     *
+     * @param snapshot Where to write.
+     */
+    void writeTo(ByteBuffer snapshot) {
+        GameSnapshot.putText(snapshot, hunterName);
+        snapshot.putInt(gold);
+        snapshot.put((byte) kit.getCapacity()).putLong(kit.getItems());
+        snapshot.put((byte) collectedTreasures.size());
+        for (int i = 0; i < collectedTreasures.size(); i++) {
+            GameSnapshot.putText(snapshot, collectedTreasures.get(i));
+        }
+    }
+
+    /**
+     * Reads a hunter back from a saved game.
+     *
+     * @param snapshot Where to read from.
+     * @param context The game session the hunter belongs to.
+     * @return The hunter as it was saved.
+     */
+    static Hunter readFrom(ByteBuffer snapshot, GameContext context) {
+        Hunter hunter = new Hunter(GameSnapshot.getText(snapshot), snapshot.getInt(), context);
+        int capacity = snapshot.get();
+        hunter.kit = new Kit(capacity, snapshot.getLong());
+        int count = snapshot.get();
+        for (int i = 0; i < count; i++) {
+            hunter.collectedTreasures = hunter.collectedTreasures.add(GameSnapshot.getText(snapshot));
+        }
+        return hunter;
+    }
+
+    /**
+     * Rebuilds a hunter from a GameState, sharing its treasures.
+     *
+     * @param state The state to rebuild.
+     * @param context The game session the hunter belongs to.
+     * @return The hunter as it was when the state was captured.
+     */
+    static Hunter restore(GameState state, GameContext context) {
+        Hunter hunter = new Hunter(state.getHunterName(), state.getGold(), context);
+        hunter.kit = new Kit(state.getKitCapacity(), state.getKit());
+        hunter.collectedTreasures = state.getTreasures();
+        return hunter;
+    }
+
+    //Accessors
+    public String getHunterName() {
+        return hunterName;
+    }
+
+    public int getGold() {
+        return gold;
+    }
+
+    /**
+     * Updates the amount of gold the hunter has.
+     *
+     * @param modifier Amount to modify gold by.
+     */
+    public void changeGold(int modifier) {
+        int before = gold;
+        gold += modifier;
+        if (gold < 0) {
+            gold = 0;
+        }
+        GameEvents.goldChange(this, gold - before);
+    }
+
+    /**
+     * Sets kit to have all items from shop, except the sword, as many as the kit holds.
+     */
+    public void setKit() {
+        for (int item = 0; item < Items.count(); item++) {
+            if (item != Items.SWORD) {
+                kit.add(item);
+            }
+        }
+    }
+
+    /**
+     * Buys an item from a shop.
+     *
+     * @param item The item the hunter is buying.
+     * @param costOfItem The cost of the item.
+     * @return true if the item is successfully bought.
+     */
+    public boolean buyItem(String item, int costOfItem) {
+        return buyItem(Items.ordinalOf(item), costOfItem);
+    }
+
+    /**
+     * Buys an item from a shop.
+     *
+     * @param item The ordinal of the item the hunter is buying.
+     * @param costOfItem The cost of the item.
+     * @return true if the item is successfully bought.
+     */
+    public boolean buyItem(int item, int costOfItem) {
+        if (item == Items.NONE) {
+            return false;
+        }
+        if (!kit.has(item) && kit.size() >= kit.getCapacity()) {
+            // there's no room for it, so it isn't paid for either
+            return false;
+        }
+        if (item == Items.SWORD || kit.has(Items.SWORD)) {
+            kit.add(item);
+            return true;
+        }
+        if (costOfItem == 0 || gold < costOfItem || kit.has(item)) {
+            return false;
+        }
+
+        gold -= costOfItem;
+        kit.add(item);
+        GameEvents.goldChange(this, -costOfItem);
+        return true;
+    }
+
+    /**
+     * Adds a treasure to the hunter's collected treasures.
+     *
+     * @param treasure The treasure to be added.
+     */
+    public void addTreasure(String treasure) {
+        if (collectedTreasures.contains(treasure)) {
+            if (context.getOut().isEnabled()) {
+                context.getOut().println("You already have a " + treasure + ".");
+            }
+        } else if (collectedTreasures.size() < treasureSlots) {
+            collectedTreasures = collectedTreasures.add(treasure);
+            OutputSink out = context.getOut();
+            if (out.isEnabled()) {
+                out.println("You added a " + treasure + " to your collection!");
+            }
+            if (hasAllTreasures()) {
+                out.println("Congratulations, you have found the last of the " + countOf(treasureSlots) + " treasures, you win!");
+            }
+        }
+    }
+
+    /**
+     * @return A count of treasures in words, for the small counts a catalog has.
+     */
+    private static String countOf(int count) {
+        return count < NUMBERS.length ? NUMBERS[count] : String.valueOf(count);
+    }
+
+    /**
+     * Checks whether every treasure slot has been filled, which wins the game.
+     *
+     * @return true if the hunter has found all of the treasures.
+     */
+    public boolean hasAllTreasures() {
+        return collectedTreasures.size() >= treasureSlots;
+    }
+
+    /**
+     * The Hunter is selling an item to a shop for gold.<p>
+     * This method checks to make sure that the seller has the item and that the seller is getting more than 0 gold.
+     *
+     * @param item The item being sold.
+     * @param buyBackPrice the amount of gold earned from selling the item
+     * @return true if the item was successfully sold.
+     */
+    public boolean sellItem(String item, int buyBackPrice) {
+        return sellItem(Items.ordinalOf(item), buyBackPrice);
+    }
+
+    /**
+     * The Hunter is selling an item to a shop for gold.
+     *
+     * @param item The ordinal of the item being sold.
+     * @param buyBackPrice the amount of gold earned from selling the item
+     * @return true if the item was successfully sold.
+     */
+    public boolean sellItem(int item, int buyBackPrice) {
+        if (buyBackPrice <= 0 || !kit.has(item)) {
+            return false;
+        }
+
+        gold += buyBackPrice;
+        kit.remove(item);
+        GameEvents.goldChange(this, buyBackPrice);
+        return true;
+    }
+
+    /**
+     * Removes an item from the kit.
+     *
+     * @param item The item to be removed.
+     */
+    public void removeItemFromKit(String item) {
+        kit.remove(Items.ordinalOf(item));
+    }
+
+    /**
+     * Removes an item from the kit.
+     *
+     * @param item The ordinal of the item to be removed.
+     */
+    public void removeItemFromKit(int item) {
+        kit.remove(item);
+    }
+
+    /**
+     * Checks if the kit has the specified item.
+     *
+     * @param item The search item
+     * @return true if the item is found.
+     */
+    public boolean hasItemInKit(String item) {
+        return kit.has(Items.ordinalOf(item));
+    }
+
+    /**
+     * Checks if the kit has the specified item.
+     *
+     * @param item The ordinal of the search item
+     * @return true if the item is found.
+     */
+    public boolean hasItemInKit(int item) {
+        return kit.has(item);
+    }
+
+     /**
+     * Returns a printable representation of the inventory, which
+     * is a list of the items in kit, with a space between each item.
+     *
+     * @return The printable String representation of the inventory.
+     */
+     public String getInventory() {
+         StringBuilder printableKit = new StringBuilder();
+         appendInventory(printableKit);
+         return printableKit.toString();
+     }
+
+    /**
+     * Appends the printable inventory to a builder, so it can be part of a larger string without a copy.
+     *
+     * @param printableKit The builder to append to.
+     */
+    private void appendInventory(StringBuilder printableKit) {
+        String space = " ";
+
+        for (int item = 0; item < Items.count(); item++) {
+            if (kit.has(item)) {
+                printableKit.append(Colors.PURPLE).append(Items.nameOf(item)).append(space).append(Colors.RESET);
+            }
+        }
+    }
+
+
+    /**
+     * @return A string representation of the hunter.
+     */
+    public String toString() {
+        StringBuilder str = new StringBuilder(256);
+        str.append(hunterName).append(" has ").append(Colors.YELLOW).append(gold).append(" gold").append(Colors.RESET);
+        if (!kit.isEmpty()) {
+            str.append(" and ");
+            appendInventory(str);
+        }
+        str.append("\nTreasures found: ").append(Colors.PURPLE);
+        if(!treasureEmpty()){
+            appendTreasures(str);
+        } else {
+            str.append("None");
+        }
+        str.append(Colors.RESET);
+        return str.toString();
+    }
+
+    /**
+     * @return How many treasures the hunter has found.
+     */
+    public int getTreasureCount() {
+        return collectedTreasures.size();
+    }
+
+    /**
+     * @param index Which treasure, in the order they were found.
+     * @return The treasure, or null if fewer than index + 1 have been found.
+     */
+    public String getTreasure(int index) {
+        return index < collectedTreasures.size() ? collectedTreasures.get(index) : null;
+    }
+
+    /**
+     * @return The treasures found so far; the list never changes, so it can be shared.
+     */
+    public TreasureList getTreasureList() {
+        return collectedTreasures;
+    }
+
+    /**
+     * @return The most items the kit can hold.
+     */
+    public int getKitCapacity() {
+        return kit.getCapacity();
+    }
+
+    /**
+     * @return The items in the kit, as a bitmask of item ordinals.
+     */
+    public long getKitItems() {
+        return kit.getItems();
+    }
+
+    public String getTreasures(){
+        StringBuilder treasures = new StringBuilder();
+        appendTreasures(treasures);
+        return treasures.toString();
+    }
+
+    private void appendTreasures(StringBuilder treasures) {
+        String space = " ";
+        treasures.append(Colors.PURPLE).append(Colors.RESET);
+        for (int i = 0; i < collectedTreasures.size(); i++) {
+            treasures.append(collectedTreasures.get(i)).append(space);
+        }
+    }
+
+    private boolean treasureEmpty() {
+        return collectedTreasures.isEmpty();
+    }
+}
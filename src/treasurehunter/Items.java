@@ -0,0 +1,52 @@
+package treasurehunter;
+
+/**
+ * The Items class is the registry of every item in the Treasure Hunt game. <p>
+ * Each item has a fixed ordinal, which is what the game stores and compares;
+ * the item names are only needed when reading player input or printing. <p>
+ * The items themselves come from the Catalog, in the order it lists them. The constants name
+ * the items the rules know about; an item added to the catalog is bought, sold and needed to
+ * cross terrain without one.
+ */
+
+public class Items {
+    // constants
+    public static final int WATER = Catalog.get().ordinalOf("water");
+    public static final int ROPE = Catalog.get().ordinalOf("rope");
+    public static final int MACHETE = Catalog.get().ordinalOf("machete");
+    public static final int HORSE = Catalog.get().ordinalOf("horse");
+    public static final int BOAT = Catalog.get().ordinalOf("boat");
+    public static final int BOOTS = Catalog.get().ordinalOf("boots");
+    public static final int SHOVEL = Catalog.get().ordinalOf("shovel");
+    public static final int SWORD = Catalog.get().ordinalOf("sword");
+
+    public static final int NONE = -1;
+
+    private Items() {
+    }
+
+    /**
+     * @return How many items there are.
+     */
+    public static int count() {
+        return Catalog.get().getItemCount();
+    }
+
+    /**
+     * Looks up an item by name.
+     *
+     * @param name The item's name in lowercase.
+     * @return The item's ordinal, or NONE if there is no such item.
+     */
+    public static int ordinalOf(String name) {
+        return Catalog.get().ordinalOf(name);
+    }
+
+    /**
+     * @param item An item's ordinal.
+     * @return The item's name.
+     */
+    public static String nameOf(int item) {
+        return Catalog.get().getItemName(item);
+    }
+}
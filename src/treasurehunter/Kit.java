@@ -0,0 +1,87 @@
+package treasurehunter;
+
+/**
+ * The Kit class holds the items a Hunter is carrying. <p>
+ * The kit is a single bitmask with one bit per item ordinal (see Items), so checking for,
+ * adding and removing an item are constant time and never allocate.
+ */
+
+public class Kit {
+    // instance variables
+    private long items;
+    private int capacity;
+
+    /**
+     * Creates an empty kit.
+     *
+     * @param capacity The most items the kit can hold.
+     */
+    public Kit(int capacity) {
+        this.capacity = capacity;
+        items = 0;
+    }
+
+    /**
+     * Creates a kit already holding some items, as when a saved game is loaded.
+     *
+     * @param capacity The most items the kit can hold.
+     * @param items The raw bitmask of item ordinals.
+     */
+    Kit(int capacity, long items) {
+        this.capacity = capacity;
+        this.items = items;
+    }
+
+    /**
+     * @param item The item's ordinal.
+     * @return true if the item is in the kit.
+     */
+    public boolean has(int item) {
+        return item >= 0 && (items & (1L << item)) != 0;
+    }
+
+    /**
+     * Adds an item if it isn't already in the kit and there is room for it.
+     *
+     * @param item The item's ordinal.
+     * @return true if the item was added.
+     */
+    public boolean add(int item) {
+        if (item < 0 || has(item) || size() >= capacity) {
+            return false;
+        }
+        items |= 1L << item;
+        return true;
+    }
+
+    /**
+     * @param item The item's ordinal.
+     * @return true if the item was in the kit and has been removed.
+     */
+    public boolean remove(int item) {
+        if (!has(item)) {
+            return false;
+        }
+        items &= ~(1L << item);
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return items == 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return Long.bitCount(items);
+    }
+
+    /**
+     * @return The raw bitmask of item ordinals.
+     */
+    public long getItems() {
+        return items;
+    }
+}
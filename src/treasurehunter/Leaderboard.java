@@ -0,0 +1,467 @@
+package treasurehunter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The Leaderboard class ranks finished games per difficulty mode and keeps them in a file. <p>
+ * Games are ranked by winning, then by treasures found, then by the fewest turns, then by the
+ * most gold; among equal games the earlier one ranks higher. Each mode keeps its best
+ * games (10,000 unless told otherwise) in a ConcurrentSkipListSet, so any number of sessions can
+ * record games at once without locking, and the top of the board is read straight off the front
+ * of the set. A rank is found by counting the games ahead, which stays well under a millisecond
+ * at the board's size. <p>
+ * Every recorded game is appended to the file in batches: when enough games are waiting, when a
+ * second has passed (checked as games are recorded, and once a second by a background thread, so
+ * an idle server still writes out its last games), or on flush() and close(). Whichever thread
+ * finds the file free does the write and the others carry on. The file only grows, so compact()
+ * rewrites it with just the games still on the board. <p>
+ * Hunter names are clipped to MAX_NAME_LENGTH characters, so every record fits in the write
+ * buffer, and a record is only appended once it has been encoded in full.
+ * <pre>
+ * header: int MAGIC, byte VERSION
+ * record: int length, long id, byte outcome, byte treasures, int turns, int gold, text mode, text name
+ * </pre>
+ */
+
+public class Leaderboard implements Closeable {
+    // constants
+    public static final int MAGIC = 0x54484C42;
+    public static final byte VERSION = 1;
+    public static final int DEFAULT_CAPACITY = 10000;
+    public static final int MAX_NAME_LENGTH = 100;
+    private static final int HEADER_SIZE = 5;
+    private static final int BATCH = 256;
+    private static final long FLUSH_NANOS = 1000000000L;
+
+    // the order of the board: best first
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparing((Entry e) -> e.outcome != GameResult.Outcome.WON)
+            .thenComparingInt(e -> -e.treasures)
+            .thenComparingInt(e -> e.turns)
+            .thenComparingInt(e -> -e.gold)
+            .thenComparingLong(e -> e.id);
+
+    // instance variables
+    private Path file;
+    private int capacity;
+    private ConcurrentHashMap<String, Board> boards;
+    private AtomicLong nextId;
+    private ConcurrentLinkedQueue<Entry> unwritten;
+    private AtomicInteger unwrittenCount;
+    private ReentrantLock writeLock;
+    private FileChannel channel;
+    private ByteBuffer writeBuffer;
+    private volatile long lastFlush;
+    private ScheduledExecutorService flusher;
+    private boolean closed;
+
+    /**
+     * One recorded game.
+     */
+    public static class Entry {
+        private long id;
+        private String hunterName;
+        private String mode;
+        private GameResult.Outcome outcome;
+        private int treasures;
+        private int turns;
+        private int gold;
+
+        Entry(long id, String hunterName, String mode, GameResult.Outcome outcome, int treasures, int turns, int gold) {
+            this.id = id;
+            this.hunterName = hunterName;
+            this.mode = mode;
+            this.outcome = outcome;
+            this.treasures = treasures;
+            this.turns = turns;
+            this.gold = gold;
+        }
+
+        // accessors
+        public String getHunterName() {
+            return hunterName;
+        }
+
+        public String getMode() {
+            return mode;
+        }
+
+        public GameResult.Outcome getOutcome() {
+            return outcome;
+        }
+
+        public int getTreasures() {
+            return treasures;
+        }
+
+        public int getTurns() {
+            return turns;
+        }
+
+        public int getGold() {
+            return gold;
+        }
+
+        public String toString() {
+            return hunterName + " " + outcome + " with " + treasures + " treasures after " + turns + " turns and " + gold + " gold";
+        }
+    }
+
+    /**
+     * The games of one mode.
+     */
+    private static class Board {
+        private ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(RANKING);
+        private AtomicInteger size = new AtomicInteger();
+    }
+
+    /**
+     * Opens a leaderboard file, loading the games already in it.
+     *
+     * @param file The leaderboard file; it is created if it doesn't exist.
+     * @return The leaderboard.
+     * @throws IOException if the file can't be read or isn't a leaderboard.
+     */
+    public static Leaderboard open(Path file) throws IOException {
+        return open(file, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Opens a leaderboard file, loading the games already in it.
+     *
+     * @param file The leaderboard file; it is created if it doesn't exist.
+     * @param capacity How many games each mode's board keeps.
+     * @return The leaderboard.
+     * @throws IOException if the file can't be read or isn't a leaderboard.
+     */
+    public static Leaderboard open(Path file, int capacity) throws IOException {
+        Leaderboard leaderboard = new Leaderboard(file, capacity);
+        leaderboard.load();
+        leaderboard.startFlushing();
+        return leaderboard;
+    }
+
+    private Leaderboard(Path file, int capacity) {
+        this.file = file;
+        this.capacity = capacity;
+        boards = new ConcurrentHashMap<>();
+        nextId = new AtomicLong();
+        unwritten = new ConcurrentLinkedQueue<>();
+        unwrittenCount = new AtomicInteger();
+        writeLock = new ReentrantLock();
+        writeBuffer = ByteBuffer.allocate(64 * 1024);
+        lastFlush = System.nanoTime();
+    }
+
+    /**
+     * Records a finished game.
+     *
+     * @param result How the game ended.
+     * @return The game's entry, for looking up its rank.
+     */
+    public Entry record(GameResult result) {
+        Entry entry = new Entry(nextId.getAndIncrement(), clip(result.getHunterName()), clip(result.getMode()),
+                result.getOutcome(), result.getTreasures(), result.getTurns(), result.getGold());
+        add(entry);
+        unwritten.offer(entry);
+        if (unwrittenCount.incrementAndGet() >= BATCH || System.nanoTime() - lastFlush > FLUSH_NANOS) {
+            tryWriteUnwritten();
+        }
+        return entry;
+    }
+
+    /**
+     * Cuts text down to MAX_NAME_LENGTH characters, without splitting a character in two.
+     */
+    private static String clip(String text) {
+        if (text.length() <= MAX_NAME_LENGTH) {
+            return text;
+        }
+        int end = MAX_NAME_LENGTH;
+        if (Character.isHighSurrogate(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(0, end);
+    }
+
+    /**
+     * @param mode The difficulty mode.
+     * @param n How many games to list.
+     * @return The best n games in the mode, best first.
+     */
+    public List<Entry> top(String mode, int n) {
+        List<Entry> top = new ArrayList<>(Math.min(n, capacity));
+        Board board = boards.get(mode);
+        if (board != null) {
+            Iterator<Entry> entries = board.entries.iterator();
+            while (top.size() < n && entries.hasNext()) {
+                top.add(entries.next());
+            }
+        }
+        return top;
+    }
+
+    /**
+     * @param entry A recorded game.
+     * @return The game's position on its mode's board, starting at 1, or -1 if it isn't on the board.
+     */
+    public int rank(Entry entry) {
+        Board board = boards.get(entry.mode);
+        if (board == null || !board.entries.contains(entry)) {
+            return -1;
+        }
+        return board.entries.headSet(entry).size() + 1;
+    }
+
+    /**
+     * @param mode The difficulty mode.
+     * @return How many games the mode's board holds.
+     */
+    public int size(String mode) {
+        Board board = boards.get(mode);
+        return board == null ? 0 : board.size.get();
+    }
+
+    /**
+     * Writes every game recorded so far to the file.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    public void flush() throws IOException {
+        writeLock.lock();
+        try {
+            if (!closed) {
+                writeUnwritten();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Rewrites the file with only the games still on the boards, replacing it atomically.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    public void compact() throws IOException {
+        writeLock.lock();
+        try {
+            writeUnwritten();
+            Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+            try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(writeBuffer.capacity());
+                buffer.putInt(MAGIC).put(VERSION);
+                for (Board board : boards.values()) {
+                    for (Entry entry : board.entries) {
+                        put(out, buffer, entry);
+                    }
+                }
+                drain(out, buffer);
+                out.force(false);
+            }
+            channel.close();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes any remaining games and closes the file.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    public void close() throws IOException {
+        flusher.shutdown();
+        writeLock.lock();
+        try {
+            if (!closed) {
+                closed = true;
+                writeUnwritten();
+                channel.close();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes out the games that have been waiting for a second, once a second, on a daemon thread.
+     */
+    private void startFlushing() {
+        flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "leaderboard-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            if (unwrittenCount.get() > 0 && System.nanoTime() - lastFlush > FLUSH_NANOS) {
+                tryWriteUnwritten();
+            }
+        }, FLUSH_NANOS, FLUSH_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Appends the games waiting to be written, unless another thread is writing already.
+     */
+    private void tryWriteUnwritten() {
+        if (writeLock.tryLock()) {
+            try {
+                if (!closed) {
+                    writeUnwritten();
+                }
+            } catch (IOException e) {
+                System.err.println("Couldn't write the leaderboard to " + file + ": " + e.getMessage());
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Puts a game on its mode's board, dropping the worst game if the board is full.
+     */
+    private void add(Entry entry) {
+        Board board = boards.computeIfAbsent(entry.mode, mode -> new Board());
+        if (!board.entries.add(entry)) {
+            return;
+        }
+        if (board.size.incrementAndGet() > capacity && board.entries.pollLast() != null) {
+            board.size.decrementAndGet();
+        }
+    }
+
+    /**
+     * Reads the games in the file onto the boards and opens it for appending.
+     * A record cut short by a crash is dropped.
+     */
+    private void load() throws IOException {
+        if (Files.exists(file) && Files.size(file) > 0) {
+            ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (contents.remaining() < HEADER_SIZE || contents.getInt() != MAGIC) {
+                throw new IOException("Not a Treasure Hunter leaderboard: " + file);
+            }
+            byte version = contents.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported leaderboard version " + version);
+            }
+            long maxId = -1;
+            while (contents.remaining() >= 4 && contents.remaining() - 4 >= contents.getInt(contents.position())) {
+                contents.getInt();
+                long id = contents.getLong();
+                GameResult.Outcome outcome = GameResult.Outcome.values()[contents.get()];
+                int treasures = contents.get();
+                int turns = contents.getInt();
+                int gold = contents.getInt();
+                String mode = GameSnapshot.getText(contents);
+                String name = GameSnapshot.getText(contents);
+                add(new Entry(id, name, mode, outcome, treasures, turns, gold));
+                maxId = Math.max(maxId, id);
+            }
+            nextId.set(maxId + 1);
+            try (FileChannel truncate = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                truncate.truncate(contents.position());
+            }
+        } else {
+            try (FileChannel header = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                header.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).put(VERSION).flip());
+            }
+        }
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Appends the games waiting to be written. The caller holds the write lock.
+     */
+    private void writeUnwritten() throws IOException {
+        Entry entry = unwritten.poll();
+        while (entry != null) {
+            unwrittenCount.decrementAndGet();
+            put(channel, writeBuffer, entry);
+            entry = unwritten.poll();
+        }
+        drain(channel, writeBuffer);
+        lastFlush = System.nanoTime();
+    }
+
+    /**
+     * Adds a record to the buffer, writing the buffer out first if it is full. The record is
+     * encoded on its own first, so the buffer only ever holds whole records.
+     */
+    private static void put(FileChannel out, ByteBuffer buffer, Entry entry) throws IOException {
+        byte[] name = entry.hunterName.getBytes(StandardCharsets.UTF_8);
+        byte[] mode = entry.mode.getBytes(StandardCharsets.UTF_8);
+        int length = 8 + 1 + 1 + 4 + 4 + 2 + mode.length + 2 + name.length;
+        ByteBuffer record = ByteBuffer.allocate(4 + length);
+        record.putInt(length).putLong(entry.id).put((byte) entry.outcome.ordinal()).put((byte) entry.treasures);
+        record.putInt(entry.turns).putInt(entry.gold);
+        record.putShort((short) mode.length).put(mode);
+        record.putShort((short) name.length).put(name);
+        record.flip();
+        if (buffer.remaining() < record.remaining()) {
+            drain(out, buffer);
+        }
+        buffer.put(record);
+    }
+
+    private static void drain(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Prints the top of every board in a leaderboard file, or compacts it.
+     *
+     * @param args The leaderboard file, and optionally how many games to show or "compact".
+     * @throws IOException if the file can't be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("usage: Leaderboard <file> [top n|compact]");
+            return;
+        }
+        try (Leaderboard leaderboard = open(Paths.get(args[0]))) {
+            if (args.length > 1 && args[1].equals("compact")) {
+                long before = Files.size(leaderboard.file);
+                leaderboard.compact();
+                System.out.println("Compacted " + before + " bytes to " + Files.size(leaderboard.file));
+                return;
+            }
+            int n = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+            for (String mode : leaderboard.boards.keySet()) {
+                System.out.println("Mode " + mode + " (" + leaderboard.size(mode) + " games):");
+                int rank = 1;
+                for (Entry entry : leaderboard.top(mode, n)) {
+                    System.out.println(String.format("%5d. ", rank++) + entry);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package treasurehunter;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * The LoadGenerator class drives a GameServer with many simulated telnet players. <p>
+ * Each active client answers whatever prompt the server last printed and measures the time from
+ * sending a move to receiving the next "What's your next move?" prompt. Idle clients connect,
+ * read the welcome prompt and then hold their connection open for the rest of the run.
+ */
+
+public class LoadGenerator {
+    // constants
+    private static final String[] MOVES = {"l", "h", "d", "m"};
+
+    // instance variables
+    private String host;
+    private int port;
+
+    /**
+     * @param host The server's host name.
+     * @param port The server's port.
+     */
+    public LoadGenerator(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Runs the load and prints the latency report.
+     *
+     * @param clients How many clients play moves.
+     * @param moves How many moves each active client plays.
+     * @param idle How many extra clients only hold a connection open.
+     * @throws Exception if a client can't connect.
+     */
+    public void run(int clients, int moves, int idle) throws Exception {
+        List<Socket> idleSockets = new ArrayList<>();
+        for (int i = 0; i < idle; i++) {
+            Socket socket = new Socket(host, port);
+            readPrompt(new BufferedInputStream(socket.getInputStream()));
+            idleSockets.add(socket);
+        }
+
+        ExecutorService executor = GameServer.newVirtualThreadExecutor();
+        List<Future<long[]>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            int id = i;
+            futures.add(executor.submit(() -> playClient(id, moves)));
+        }
+        long[][] perClient = new long[clients][];
+        int total = 0;
+        for (int i = 0; i < clients; i++) {
+            perClient[i] = futures.get(i).get();
+            total += perClient[i].length;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+        for (Socket socket : idleSockets) {
+            socket.close();
+        }
+
+        long[] latencies = new long[total];
+        int next = 0;
+        for (long[] client : perClient) {
+            System.arraycopy(client, 0, latencies, next, client.length);
+            next += client.length;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%d active + %d idle connections, %d moves in %.2f s (%.0f moves/s)%n",
+                clients, idle, total, seconds, total / seconds);
+        if (total > 0) {
+            System.out.printf("latency us: p50 %.1f, p99 %.1f, max %.1f%n",
+                    latencies[total / 2] / 1e3, latencies[(int) (total * 0.99)] / 1e3, latencies[total - 1] / 1e3);
+        }
+    }
+
+    /**
+     * Plays one connection by answering each prompt the server prints.
+     *
+     * @param id The client's number, used for its name and random seed.
+     * @param moves How many menu moves to play.
+     * @return The latency of each move in nanoseconds.
+     * @throws IOException if the connection fails.
+     */
+    private long[] playClient(int id, int moves) throws IOException {
+        long[] latencies = new long[moves];
+        int played = 0;
+        Random random = new Random(id);
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            long sentAt = 0;
+            while (played < moves) {
+                String prompt = readPrompt(in);
+                if (prompt == null) {
+                    break;
+                }
+                if (sentAt != 0) {
+                    latencies[played++] = System.nanoTime() - sentAt;
+                    sentAt = 0;
+                }
+                String answer;
+                if (prompt.endsWith("Hunter? ")) {
+                    answer = "bot" + id;
+                } else if (prompt.endsWith("mode? ")) {
+                    answer = "e";
+                } else if (prompt.endsWith("Play again (y/n)? ")) {
+                    answer = "y";
+                } else if (prompt.endsWith("next move? ")) {
+                    answer = MOVES[random.nextInt(MOVES.length)];
+                    sentAt = System.nanoTime();
+                } else {
+                    answer = "n";
+                }
+                out.write((answer + "\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+            out.write("x\nn\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+        return Arrays.copyOf(latencies, played);
+    }
+
+    /**
+     * Reads server output until it ends with a question prompt ("? ").
+     *
+     * @param in The connection's input.
+     * @return The last line of output, or null if the server closed the connection.
+     * @throws IOException if the read fails.
+     */
+    private static String readPrompt(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int previous = 0;
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                line.setLength(0);
+            } else {
+                line.append((char) b);
+            }
+            if (previous == '?' && b == ' ' && in.available() == 0) {
+                return line.toString();
+            }
+            previous = b;
+        }
+        return null;
+    }
+
+    /**
+     * Runs a load test against a local server.
+     *
+     * @param args Optional: port, active clients, moves per client and idle connections.
+     * @throws Exception if a client can't connect.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4444;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int moves = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int idle = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        new LoadGenerator("localhost", port).run(clients, moves, idle);
+    }
+}
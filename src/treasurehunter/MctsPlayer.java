@@ -0,0 +1,464 @@
+package treasurehunter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The MctsPlayer class picks every move by Monte Carlo tree search over the real game rules. <p>
+ * Each move, the game as the hunter sees it is captured as a GameState, and thousands of possible
+ * futures are played out from it: each one resumes the state with random numbers of its own, and
+ * with a guess at the town's hidden treasure, since the hunter can't know what hunting will turn
+ * up. The moves are the menu options and the items that can be bought or sold, so a buy or sell
+ * decides the item too. Moves that can't do anything right now (moving without the item the
+ * terrain needs, digging twice, buying what can't be afforded) aren't considered. <p>
+ * The search is open-loop UCT: the tree is made of moves, not states, and the futures are played
+ * from the root every time, so chance is sampled rather than enumerated. Below the tree a future
+ * is played on by a quick rule of thumb, mixed with random moves, up to a horizon. A win is worth
+ * 1, and a game still going at the horizon is worth a little for each treasure found. <p>
+ * The search is root-parallel: one tree per worker on the common fork-join pool, each with its own
+ * random numbers, and the move tried most often across all of the trees is played. Every worker
+ * stops at the same deadline, so a move takes the time budget (40 ms unless set) however many
+ * cores there are. An iteration limit can be set as well, for repeatable searches.
+ */
+
+public class MctsPlayer implements Player {
+    // constants
+    private static final double EXPLORATION = 0.7;
+    private static final double TREASURE_VALUE = 0.3;
+    private static final double RULE_OF_THUMB = 0.6;
+    private static final int TREE_NODES = 8192;
+
+    // every move: the plain ones, then buying each item, then selling each item
+    private static final GameAction[] ACTIONS = new GameAction[4 + 2 * Items.count()];
+    private static final int BUY = 4;
+    private static final int SELL = BUY + Items.count();
+
+    static {
+        ACTIONS[0] = GameAction.MOVE;
+        ACTIONS[1] = GameAction.LOOK_FOR_TROUBLE;
+        ACTIONS[2] = GameAction.HUNT;
+        ACTIONS[3] = GameAction.DIG;
+        for (int item = 0; item < Items.count(); item++) {
+            ACTIONS[BUY + item] = GameAction.buy(item);
+            ACTIONS[SELL + item] = GameAction.sell(item);
+        }
+    }
+
+    // instance variables
+    private String name;
+    private String mode;
+    private SplittableRandom random;
+    private long budgetMillis;
+    private int iterations;
+    private int workers;
+    private int horizon;
+    private int maxTurns;
+    private boolean townPrices;
+    private Tree[] trees;
+
+    // what the player remembers about the game, since the game only shows it the hunter and the town
+    private Town town;
+    private boolean dug;
+    private int turns;
+    private int pendingItem;
+
+    // how the searches have gone
+    private long moves;
+    private long rollouts;
+    private long totalNanos;
+    private long slowestNanos;
+
+    /**
+     * @param name The hunter's name.
+     * @param mode The difficulty to play on.
+     * @param seed Seed for the futures the player imagines; the game's own random numbers are never used.
+     * @param maxTurns The game's turn limit, or 0 for none, so the search knows when time runs out.
+     */
+    public MctsPlayer(String name, String mode, long seed, int maxTurns) {
+        this.name = name;
+        this.mode = mode;
+        this.maxTurns = maxTurns;
+        random = new SplittableRandom(seed);
+        budgetMillis = 40;
+        iterations = 0;
+        workers = Runtime.getRuntime().availableProcessors();
+        horizon = 60;
+        pendingItem = Items.NONE;
+    }
+
+    /**
+     * @param budgetMillis How long each move may take.
+     */
+    public void setBudgetMillis(long budgetMillis) {
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * @param iterations The most futures each worker plays per move, or 0 for as many as the budget allows.
+     */
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    /**
+     * @param workers How many trees are searched in parallel; by default one per core.
+     */
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * @param horizon How many turns ahead each future is played before it is scored.
+     */
+    public void setHorizon(int horizon) {
+        this.horizon = horizon;
+    }
+
+    /**
+     * @param townPrices Whether the game gives each town's shop prices of its own, so the futures
+     *                   past this town are played with the same kind of shops.
+     */
+    public void setTownPrices(boolean townPrices) {
+        this.townPrices = townPrices;
+    }
+
+    public String chooseName() {
+        // a new game is starting
+        town = null;
+        turns = 0;
+        return name;
+    }
+
+    public String chooseMode() {
+        return mode;
+    }
+
+    public String chooseAction(Hunter hunter, Town town) {
+        if (town != this.town) {
+            this.town = town;
+            dug = false;
+        }
+        // the futures play on random numbers of their own, so the game's seed isn't needed: 0 stands in
+        GameState state = new GameState(mode, 0, maxTurns, townPrices, 0, turns, dug, hunter, town);
+        GameAction action = decide(state);
+        turns++;
+
+        switch (action.getKind()) {
+            case BUY:
+                pendingItem = action.getItem();
+                return "b";
+            case SELL:
+                pendingItem = action.getItem();
+                return "s";
+            case DIG:
+                dug = true;
+                return "d";
+            case MOVE:
+                return "m";
+            case HUNT:
+                return "h";
+            default:
+                return "l";
+        }
+    }
+
+    public String chooseItem(Hunter hunter, Shop shop, boolean isBuying) {
+        int item = pendingItem;
+        pendingItem = Items.NONE;
+        return item == Items.NONE ? "" : Items.nameOf(item);
+    }
+
+    public boolean confirmTrade(String item, int cost, boolean isBuying) {
+        return true;
+    }
+
+    /**
+     * Searches for the best move.
+     *
+     * @param state The game as the hunter sees it; its random numbers and hidden treasure are ignored.
+     * @return The move to play.
+     */
+    public GameAction decide(GameState state) {
+        long start = System.nanoTime();
+        long deadline = start + budgetMillis * 1_000_000;
+        if (trees == null || trees.length != Math.max(1, workers)) {
+            trees = new Tree[Math.max(1, workers)];
+            for (int i = 0; i < trees.length; i++) {
+                trees[i] = new Tree();
+            }
+        }
+        List<Worker> tasks = new ArrayList<>();
+        for (Tree tree : trees) {
+            tasks.add(new Worker(tree, state, random.split(), deadline, iterations, horizon));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        long[] visits = new long[ACTIONS.length];
+        for (Worker task : tasks) {
+            Tree tree = task.join();
+            for (int action = 0; action < ACTIONS.length; action++) {
+                visits[action] += tree.visits[action];
+            }
+            rollouts += task.played;
+        }
+        int best = 1;
+        for (int action = 0; action < ACTIONS.length; action++) {
+            if (visits[action] > visits[best]) {
+                best = action;
+            }
+        }
+
+        long nanos = System.nanoTime() - start;
+        moves++;
+        totalNanos += nanos;
+        slowestNanos = Math.max(slowestNanos, nanos);
+        return ACTIONS[best];
+    }
+
+    /**
+     * One search tree, kept in flat tables that are cleared and filled again every move, so a
+     * search allocates nothing that outlives a future. Node n's numbers for the move with index a
+     * are at n * ACTIONS.length + a; node 0 is the root, so a child of 0 means there isn't one yet.
+     * Once the tables are full the tree stops growing and the futures are played on from its leaves.
+     */
+    private static class Tree {
+        private final int[] visits = new int[TREE_NODES * ACTIONS.length];
+        private final double[] value = new double[TREE_NODES * ACTIONS.length];
+        private final int[] children = new int[TREE_NODES * ACTIONS.length];
+        private final int[] total = new int[TREE_NODES];
+        private int size;
+
+        void clear() {
+            size = 0;
+            addNode();
+        }
+
+        /**
+         * @return The new node, or 0 if the tree is full.
+         */
+        int addNode() {
+            if (size == TREE_NODES) {
+                return 0;
+            }
+            int from = size * ACTIONS.length;
+            Arrays.fill(visits, from, from + ACTIONS.length, 0);
+            Arrays.fill(value, from, from + ACTIONS.length, 0);
+            Arrays.fill(children, from, from + ACTIONS.length, 0);
+            total[size] = 0;
+            return size++;
+        }
+    }
+
+    /**
+     * Grows one tree until the deadline.
+     */
+    private static class Worker extends RecursiveTask<Tree> {
+        private static final long serialVersionUID = 1L;
+
+        private Tree tree;
+        private GameState state;
+        private SplittableRandom random;
+        private long deadline;
+        private int iterations;
+        private int horizon;
+        private int[] legal = new int[ACTIONS.length];
+        private int[] path;
+        private long played;
+
+        Worker(Tree tree, GameState state, SplittableRandom random, long deadline, int iterations, int horizon) {
+            this.tree = tree;
+            this.state = state;
+            this.random = random;
+            this.deadline = deadline;
+            this.iterations = iterations;
+            this.horizon = horizon;
+            path = new int[horizon + 1];
+        }
+
+        protected Tree compute() {
+            tree.clear();
+            boolean guessTreasure = !state.isSearched();
+            Catalog catalog = Catalog.get();
+            // always play at least one future, however late this worker starts
+            do {
+                GameState future = guessTreasure ? state.reseed(random.nextLong(), catalog.drawTreasure(random))
+                        : state.reseed(random.nextLong());
+                playFuture(future.resume());
+                played++;
+            } while ((iterations == 0 || played < iterations) && System.nanoTime() < deadline);
+            return tree;
+        }
+
+        /**
+         * Walks down the tree, adds a move to it, plays on past it, and scores every move on the way.
+         */
+        private void playFuture(GameSession session) {
+            int node = 0;
+            int depth = 0;
+            while (!session.isOver() && depth < horizon) {
+                int count = legalActions(session, legal);
+                int slot = node * ACTIONS.length + select(node, count);
+                path[depth++] = slot;
+                session.step(ACTIONS[slot - node * ACTIONS.length]);
+                boolean expanded = tree.visits[slot] == 0;
+                if (tree.children[slot] == 0) {
+                    tree.children[slot] = tree.addNode();
+                }
+                node = tree.children[slot];
+                if (expanded || node == 0) {
+                    break;
+                }
+            }
+            int turns = depth;
+            while (!session.isOver() && turns < horizon) {
+                session.step(ACTIONS[rollout(session)]);
+                turns++;
+            }
+
+            double score = score(session);
+            for (int i = 0; i < depth; i++) {
+                tree.visits[path[i]]++;
+                tree.value[path[i]] += score;
+                tree.total[path[i] / ACTIONS.length]++;
+            }
+        }
+
+        /**
+         * @return A move that hasn't been tried here yet, or else the one with the best upper confidence bound.
+         */
+        private int select(int node, int count) {
+            int base = node * ACTIONS.length;
+            int best = legal[0];
+            double bestBound = -1;
+            double logTotal = Math.log(tree.total[node] + 1);
+            for (int i = 0; i < count; i++) {
+                int action = legal[i];
+                int visits = tree.visits[base + action];
+                if (visits == 0) {
+                    return action;
+                }
+                double bound = tree.value[base + action] / visits + EXPLORATION * Math.sqrt(logTotal / visits);
+                if (bound > bestBound) {
+                    bestBound = bound;
+                    best = action;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * @return A move by rule of thumb (hunt, dig, buy what the terrain needs, move on), or now and then a random one.
+         */
+        private int rollout(GameSession session) {
+            if (random.nextDouble() >= RULE_OF_THUMB) {
+                return legal[random.nextInt(legalActions(session, legal))];
+            }
+            if (!session.isSearched()) {
+                return 2;
+            }
+            if (!session.isDug() && session.hasItem(Items.SHOVEL)) {
+                return 3;
+            }
+            int needed = session.getTerrain().getNeededItemOrdinal();
+            if (session.hasItem(needed)) {
+                return 0;
+            }
+            if (canBuy(session, needed)) {
+                return BUY + needed;
+            }
+            return 1;
+        }
+
+        private double score(GameSession session) {
+            if (session.isOver()) {
+                return session.getResult().getOutcome() == GameResult.Outcome.WON ? 1 : 0;
+            }
+            return TREASURE_VALUE * session.getTreasureCount() / Catalog.get().getWinningTreasureCount();
+        }
+    }
+
+    /**
+     * Lists the moves that can do something in the session right now.
+     *
+     * @param session The game.
+     * @param into Where to put the moves' indexes into ACTIONS.
+     * @return How many there are; looking for trouble always can.
+     */
+    private static int legalActions(GameSession session, int[] into) {
+        int count = 0;
+        if (session.hasItem(session.getTerrain().getNeededItemOrdinal())) {
+            into[count++] = 0;
+        }
+        into[count++] = 1;
+        if (!session.isSearched()) {
+            into[count++] = 2;
+        }
+        if (!session.isDug() && session.hasItem(Items.SHOVEL)) {
+            into[count++] = 3;
+        }
+        for (int item = 0; item < Items.count(); item++) {
+            if (canBuy(session, item)) {
+                into[count++] = BUY + item;
+            } else if (session.hasItem(item) && session.getPrice(item, false) > 0) {
+                into[count++] = SELL + item;
+            }
+        }
+        return count;
+    }
+
+    private static boolean canBuy(GameSession session, int item) {
+        if (session.hasItem(item)) {
+            return false;
+        }
+        if (session.hasItem(Items.SWORD)) {
+            return true;
+        }
+        if (item == Items.SWORD) {
+            // only a samurai's shop will hand one over
+            return session.getMode().equals("s");
+        }
+        int price = session.getPrice(item, true);
+        return price > 0 && price <= session.getGold();
+    }
+
+    /**
+     * @return How the searches have gone: moves, futures played and time per move.
+     */
+    public String getSearchStats() {
+        return String.format("%d moves, %.0f futures per move, %.2f ms per move (slowest %.2f ms)",
+                moves, moves == 0 ? 0 : (double) rollouts / moves, moves == 0 ? 0 : totalNanos / 1e6 / moves,
+                slowestNanos / 1e6);
+    }
+
+    /**
+     * Plays games with the tree search and reports how it did.
+     *
+     * @param args Optional: number of games, mode ("h", "e", "n", "s"), milliseconds per move, turn limit and seed.
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        String mode = args.length > 1 ? args[1] : "n";
+        long budget = args.length > 2 ? Long.parseLong(args[2]) : 40;
+        int maxTurns = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+
+        boolean townPrices = Boolean.getBoolean(GameContext.TOWN_PRICES_PROPERTY);
+        MctsPlayer player = new MctsPlayer("mcts", mode, seed, maxTurns);
+        player.setBudgetMillis(budget);
+        player.setTownPrices(townPrices);
+        SimulationResults results = new SimulationResults();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (int game = 0; game < games; game++) {
+            GameContext context = new GameContext(player, NullSink.INSTANCE, seeds.nextLong());
+            context.setMaxTurns(maxTurns);
+            context.setTownPrices(townPrices);
+            results.add(new TreasureHunter(context).play());
+        }
+        System.out.println(results);
+        System.out.println(player.getSearchStats() + " on " + player.workers + " workers");
+    }
+}
@@ -0,0 +1,74 @@
+package treasurehunter;
+
+/**
+ * The NoColorSink class strips the ANSI color codes (see Colors) from the output before
+ * passing it on to another sink. Useful for terminals without color support and for logs.
+ */
+
+public class NoColorSink implements OutputSink {
+    // constants
+    private static final char ESCAPE = '\033';
+
+    // instance variables
+    private OutputSink sink;
+
+    /**
+     * @param sink Where the plain output goes.
+     */
+    public NoColorSink(OutputSink sink) {
+        this.sink = sink;
+    }
+
+    public boolean isEnabled() {
+        return sink.isEnabled();
+    }
+
+    public void print(String text) {
+        sink.print(stripColors(text));
+    }
+
+    public void println(Object value) {
+        if (sink.isEnabled()) {
+            sink.println(stripColors(String.valueOf(value)));
+        }
+    }
+
+    public void println(String text) {
+        sink.println(stripColors(text));
+    }
+
+    public void println() {
+        sink.println();
+    }
+
+    public void flush() {
+        sink.flush();
+    }
+
+    /**
+     * Removes every escape sequence of the form ESC [ ... m.
+     *
+     * @param text The text to clean.
+     * @return The text without color codes; the same object if it had none.
+     */
+    static String stripColors(String text) {
+        int escape = text.indexOf(ESCAPE);
+        if (escape < 0) {
+            return text;
+        }
+        StringBuilder plain = new StringBuilder(text.length());
+        int start = 0;
+        while (escape >= 0) {
+            plain.append(text, start, escape);
+            int end = text.indexOf('m', escape);
+            if (end < 0) {
+                start = text.length();
+                break;
+            }
+            start = end + 1;
+            escape = text.indexOf(ESCAPE, start);
+        }
+        plain.append(text, start, text.length());
+        return plain.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package treasurehunter;
+
+/**
+ * The NullSink class discards all output. It reports itself as disabled, so the game skips
+ * building the text in the first place. Used for headless simulations and replays.
+ */
+
+public class NullSink implements OutputSink {
+    // static variables
+    public static final NullSink INSTANCE = new NullSink();
+
+    private NullSink() {
+    }
+
+    public boolean isEnabled() {
+        return false;
+    }
+
+    public void print(String text) {
+    }
+
+    public void println(Object value) {
+    }
+
+    public void println(String text) {
+    }
+
+    public void println() {
+    }
+
+    public void flush() {
+    }
+}
@@ -0,0 +1,34 @@
+package treasurehunter;
+
+/**
+ * The OutputSink interface is where the game sends everything it prints. <p>
+ * Implementations decide whether output is buffered, stripped of colors, or thrown away.
+ * Callers that would have to build a string just to print it should check isEnabled() first,
+ * so a disabled sink costs nothing.
+ */
+
+public interface OutputSink {
+    /**
+     * @return false if everything sent to this sink is discarded.
+     */
+    boolean isEnabled();
+
+    void print(String text);
+
+    /**
+     * Prints an object's string form; a disabled sink never calls toString().
+     *
+     * @param value The object to print.
+     */
+    void println(Object value);
+
+    void println(String text);
+
+    void println();
+
+    /**
+     * Pushes buffered output to its destination; called at the end of each turn and before
+     * the player is asked for input.
+     */
+    void flush();
+}
@@ -0,0 +1,59 @@
+package treasurehunter;
+
+/**
+ * The Player interface represents whoever is making the choices in the Treasure Hunt game. <p>
+ * A person at the console is one kind of player; a scripted strategy used for headless
+ * simulations is another. The game asks the player for every decision instead of reading
+ * input directly.
+ */
+
+public interface Player {
+    /**
+     * @return The hunter's name.
+     */
+    String chooseName();
+
+    /**
+     * @return The difficulty: "h"ard, "e"asy, "n"ormal, "s"amurai or "test".
+     */
+    String chooseMode();
+
+    /**
+     * Picks the next menu option.
+     *
+     * @param hunter The hunter being played.
+     * @param town The town the hunter is currently in.
+     * @return One of "b", "s", "m", "l", "h", "d" or "x".
+     */
+    String chooseAction(Hunter hunter, Town town);
+
+    /**
+     * Picks the item to buy or sell once inside the shop.
+     *
+     * @param hunter The hunter being played.
+     * @param shop The shop the hunter is in.
+     * @param isBuying Whether the hunter is buying or selling.
+     * @return The name of the item.
+     */
+    String chooseItem(Hunter hunter, Shop shop, boolean isBuying);
+
+    /**
+     * Answers the shopkeeper's "(y/n)?" question.
+     *
+     * @param item The item being traded.
+     * @param cost The gold it costs or earns.
+     * @param isBuying Whether the hunter is buying or selling.
+     * @return true if the player accepts the trade.
+     */
+    boolean confirmTrade(String item, int cost, boolean isBuying);
+
+    /**
+     * Asked once a game has ended. By default the session ends after one game.
+     *
+     * @param result How the last game ended.
+     * @return true to start another game in the same session.
+     */
+    default boolean playAgain(GameResult result) {
+        return false;
+    }
+}
@@ -0,0 +1,205 @@
+package treasurehunter;
+
+/**
+ * The PolicyPlayer class plays by a strategy described entirely by a few numbers, so a search
+ * (see StrategyOptimizer) can tune the numbers instead of rewriting the strategy. <p>
+ * Every turn it hunts in a town it hasn't searched, digs once if it has a shovel, and then:
+ * <ul>
+ * <li>buys a missing item once its gold reaches that item's buy threshold, the item needed to
+ *     leave town first;</li>
+ * <li>sells a spare item when it is stuck in town and its gold is below the sell threshold;</li>
+ * <li>looks for trouble while its gold is below the trouble threshold (which is different for
+ *     tough towns) and it hasn't run out of patience with the town;</li>
+ * <li>otherwise moves on, or looks for trouble if it can't leave.</li>
+ * </ul>
+ * Shop prices are checked when the item is chosen, and an item the hunter can't afford isn't
+ * tried again in the same town. <p>
+ * There is a buy threshold for every item in the Catalog, after the four fixed parameters, so a
+ * catalog with more or fewer items just makes the strategy longer or shorter (see count()).
+ */
+
+public class PolicyPlayer implements Player {
+    // the parameters: the fixed ones, then one buy threshold per item ordinal
+    public static final int TROUBLE_GOLD = 0;
+    public static final int TOUGH_TROUBLE_GOLD = 1;
+    public static final int PATIENCE = 2;
+    public static final int SELL_GOLD = 3;
+    public static final int BUY_GOLD = 4;
+    private static final String[] FIXED_NAMES = {"trouble gold", "tough trouble gold", "patience", "sell gold"};
+    private static final double MOST_GOLD = 60;
+    private static final double MOST_PATIENCE = 20;
+
+    // instance variables
+    private String name;
+    private String mode;
+    private double[] parameters;
+    private Town town;
+    private int turnsInTown;
+    private boolean dug;
+    private long blocked;
+    private int pendingItem;
+
+    /**
+     * @param name The hunter's name.
+     * @param mode The difficulty to play on.
+     * @param parameters The strategy, count() numbers indexed as described by getName().
+     * @throws IllegalArgumentException if there aren't count() parameters.
+     */
+    public PolicyPlayer(String name, String mode, double[] parameters) {
+        this.name = name;
+        this.mode = mode;
+        if (parameters.length != count()) {
+            throw new IllegalArgumentException("A strategy for " + Items.count() + " items has " + count()
+                    + " parameters, not " + parameters.length);
+        }
+        this.parameters = parameters;
+        pendingItem = Items.NONE;
+    }
+
+    /**
+     * @return How many parameters a strategy has, with the items in the game's Catalog.
+     */
+    public static int count() {
+        return BUY_GOLD + Items.count();
+    }
+
+    /**
+     * @param parameter A parameter's index.
+     * @return What the parameter is, such as "patience" or "buy rope".
+     */
+    public static String getName(int parameter) {
+        return parameter < BUY_GOLD ? FIXED_NAMES[parameter] : "buy " + Items.nameOf(parameter - BUY_GOLD);
+    }
+
+    /**
+     * @param parameter A parameter's index.
+     * @return The lowest value the parameter can sensibly take.
+     */
+    public static double getLowest(int parameter) {
+        return parameter == PATIENCE ? 1 : 0;
+    }
+
+    /**
+     * @param parameter A parameter's index.
+     * @return The highest value the parameter can sensibly take.
+     */
+    public static double getHighest(int parameter) {
+        return parameter == PATIENCE ? MOST_PATIENCE : MOST_GOLD;
+    }
+
+    public String chooseName() {
+        return name;
+    }
+
+    public String chooseMode() {
+        return mode;
+    }
+
+    public String chooseAction(Hunter hunter, Town town) {
+        if (town != this.town) {
+            this.town = town;
+            turnsInTown = 0;
+            dug = false;
+            blocked = 0;
+        }
+        turnsInTown++;
+
+        if (!town.isSearched()) {
+            return "h";
+        }
+        if (!dug && hunter.hasItemInKit(Items.SHOVEL)) {
+            dug = true;
+            return "d";
+        }
+
+        int gold = hunter.getGold();
+        int needed = town.getTerrain().getNeededItemOrdinal();
+        pendingItem = itemToBuy(hunter, needed);
+        if (pendingItem != Items.NONE) {
+            return "b";
+        }
+
+        boolean canLeave = hunter.hasItemInKit(needed);
+        if (!canLeave && gold < parameters[SELL_GOLD]) {
+            pendingItem = itemToSell(hunter, needed);
+            if (pendingItem != Items.NONE) {
+                return "s";
+            }
+        }
+        double troubleGold = town.isToughTown() ? parameters[TOUGH_TROUBLE_GOLD] : parameters[TROUBLE_GOLD];
+        if (!canLeave || gold < troubleGold && turnsInTown <= parameters[PATIENCE]) {
+            return "l";
+        }
+        return "m";
+    }
+
+    public String chooseItem(Hunter hunter, Shop shop, boolean isBuying) {
+        int item = pendingItem;
+        pendingItem = Items.NONE;
+        if (item == Items.NONE) {
+            return "";
+        }
+        if (isBuying && shop.checkMarketPrice(item, true) > hunter.getGold() && !hunter.hasItemInKit(Items.SWORD)) {
+            // not this time; don't keep coming back for it
+            blocked |= 1L << item;
+            return "";
+        }
+        if (!isBuying) {
+            blocked |= 1L << item;
+        }
+        return Items.nameOf(item);
+    }
+
+    public boolean confirmTrade(String item, int cost, boolean isBuying) {
+        return true;
+    }
+
+    /**
+     * @return The missing item the hunter has enough gold for, the needed item first, or NONE.
+     */
+    private int itemToBuy(Hunter hunter, int needed) {
+        if (wantsToBuy(hunter, needed)) {
+            return needed;
+        }
+        for (int item = 0; item < Items.count(); item++) {
+            if (wantsToBuy(hunter, item)) {
+                return item;
+            }
+        }
+        return Items.NONE;
+    }
+
+    private boolean wantsToBuy(Hunter hunter, int item) {
+        if (item == Items.SWORD && !mode.equals("s")) {
+            return false;
+        }
+        return !hunter.hasItemInKit(item) && (blocked & (1L << item)) == 0
+                && hunter.getGold() >= parameters[BUY_GOLD + item];
+    }
+
+    /**
+     * @return An item the hunter can spare, the one with the highest buy threshold first, or NONE.
+     */
+    private int itemToSell(Hunter hunter, int needed) {
+        int best = Items.NONE;
+        for (int item = 0; item < Items.count(); item++) {
+            if (item != needed && hunter.hasItemInKit(item) && (blocked & (1L << item)) == 0
+                    && (best == Items.NONE || parameters[BUY_GOLD + item] > parameters[BUY_GOLD + best])) {
+                best = item;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param parameters A strategy.
+     * @return The parameters with their names, one per line.
+     */
+    public static String describe(double[] parameters) {
+        StringBuilder str = new StringBuilder(256);
+        for (int i = 0; i < parameters.length; i++) {
+            str.append(String.format("%-20s %6.1f%n", getName(i), parameters[i]));
+        }
+        return str.toString();
+    }
+}
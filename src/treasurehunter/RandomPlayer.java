@@ -0,0 +1,62 @@
+package treasurehunter;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+/**
+ * The RandomPlayer class is a simple strategy for headless simulations. <p>
+ * It picks menu options and shop items at random and always accepts the shopkeeper's price.
+ */
+
+public class RandomPlayer implements Player {
+    // constants
+    private static final String[] ACTIONS = {"b", "s", "m", "l", "h", "d"};
+    // the items shops sell (see Catalog), in catalog order
+    private static final String[] ITEMS = itemsForSale();
+
+    // instance variables
+    private String name;
+    private String mode;
+    private SplittableRandom random;
+
+    /**
+     * @param name The hunter's name.
+     * @param mode The difficulty to play on.
+     * @param seed Seed for the player's choices.
+     */
+    public RandomPlayer(String name, String mode, long seed) {
+        this.name = name;
+        this.mode = mode;
+        random = new SplittableRandom(seed);
+    }
+
+    public String chooseName() {
+        return name;
+    }
+
+    public String chooseMode() {
+        return mode;
+    }
+
+    public String chooseAction(Hunter hunter, Town town) {
+        return ACTIONS[random.nextInt(ACTIONS.length)];
+    }
+
+    public String chooseItem(Hunter hunter, Shop shop, boolean isBuying) {
+        return ITEMS[random.nextInt(ITEMS.length)];
+    }
+
+    public boolean confirmTrade(String item, int cost, boolean isBuying) {
+        return true;
+    }
+
+    private static String[] itemsForSale() {
+        ArrayList<String> items = new ArrayList<>();
+        for (int item = 0; item < Items.count(); item++) {
+            if (Catalog.get().getCost(item) > 0) {
+                items.add(Items.nameOf(item));
+            }
+        }
+        return items.toArray(new String[0]);
+    }
+}
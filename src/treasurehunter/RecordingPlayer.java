@@ -0,0 +1,57 @@
+package treasurehunter;
+
+/**
+ * The RecordingPlayer class passes every decision through from another player and records it
+ * in a game log, so the session can be replayed later.
+ */
+
+public class RecordingPlayer implements Player {
+    // instance variables
+    private Player player;
+    private GameLogWriter log;
+
+    /**
+     * @param player The player actually making the decisions.
+     * @param log Where the decisions are recorded.
+     */
+    public RecordingPlayer(Player player, GameLogWriter log) {
+        this.player = player;
+        this.log = log;
+    }
+
+    public String chooseName() {
+        String name = player.chooseName();
+        log.writeName(name);
+        return name;
+    }
+
+    public String chooseMode() {
+        String mode = player.chooseMode();
+        log.writeMode(mode);
+        return mode;
+    }
+
+    public String chooseAction(Hunter hunter, Town town) {
+        String action = player.chooseAction(hunter, town);
+        log.writeAction(action);
+        return action;
+    }
+
+    public String chooseItem(Hunter hunter, Shop shop, boolean isBuying) {
+        String item = player.chooseItem(hunter, shop, isBuying);
+        log.writeItem(item);
+        return item;
+    }
+
+    public boolean confirmTrade(String item, int cost, boolean isBuying) {
+        boolean accepted = player.confirmTrade(item, cost, isBuying);
+        log.writeConfirm(accepted);
+        return accepted;
+    }
+
+    public boolean playAgain(GameResult result) {
+        boolean again = player.playAgain(result);
+        log.writePlayAgain(again);
+        return again;
+    }
+}
@@ -0,0 +1,168 @@
+package treasurehunter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The ReplayPlayer class makes the decisions recorded in a game log (see GameLogWriter). <p>
+ * Each decision the game asks for must match the next event in the log; if it doesn't,
+ * the game has diverged from the recording and an IllegalStateException is thrown.
+ * When the log runs out the player quits.
+ */
+
+public class ReplayPlayer implements Player {
+    // instance variables
+    private ByteBuffer log;
+    private long seed;
+    private boolean townPrices;
+    private boolean inWorld;
+
+    /**
+     * Reads a log file and its header.
+     *
+     * @param path The log file.
+     * @return The player, positioned at the first decision.
+     * @throws IOException if the file can't be read.
+     */
+    public static ReplayPlayer open(Path path) throws IOException {
+        return new ReplayPlayer(ByteBuffer.wrap(Files.readAllBytes(path)));
+    }
+
+    /**
+     * @param log The contents of a game log, starting with its header.
+     */
+    public ReplayPlayer(ByteBuffer log) {
+        this.log = log;
+        if (log.remaining() < 14 || log.getInt() != GameLogWriter.MAGIC) {
+            throw new IllegalArgumentException("Not a Treasure Hunter game log");
+        }
+        byte version = log.get();
+        if (version != GameLogWriter.VERSION) {
+            throw new IllegalArgumentException("Unsupported game log version " + version);
+        }
+        seed = log.getLong();
+        byte settings = log.get();
+        townPrices = (settings & GameLogWriter.TOWN_PRICES) != 0;
+        inWorld = (settings & GameLogWriter.IN_WORLD) != 0;
+    }
+
+    /**
+     * @return The seed of the recorded session.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return Whether the recorded session's shops had town prices.
+     */
+    public boolean getTownPrices() {
+        return townPrices;
+    }
+
+    /**
+     * @return Whether the recorded session travelled through a World.
+     */
+    public boolean isInWorld() {
+        return inWorld;
+    }
+
+    public String chooseName() {
+        return hasNext() ? readText(GameLogWriter.NAME) : "";
+    }
+
+    public String chooseMode() {
+        return hasNext() ? readText(GameLogWriter.MODE) : "";
+    }
+
+    public String chooseAction(Hunter hunter, Town town) {
+        if (!hasNext()) {
+            return "x";
+        }
+        byte event = log.get(log.position());
+        if (event == GameLogWriter.ACTION_TEXT) {
+            return readText(GameLogWriter.ACTION_TEXT);
+        }
+        if (GameLogWriter.MOVES.indexOf((char) event) < 0) {
+            throw diverged("a menu move", event);
+        }
+        log.get();
+        return String.valueOf((char) event);
+    }
+
+    public String chooseItem(Hunter hunter, Shop shop, boolean isBuying) {
+        if (!hasNext()) {
+            return "";
+        }
+        byte event = log.get(log.position());
+        if (event == GameLogWriter.ITEM_TEXT) {
+            return readText(GameLogWriter.ITEM_TEXT);
+        }
+        expect(GameLogWriter.ITEM, "an item");
+        return Items.nameOf(readVarint());
+    }
+
+    public boolean confirmTrade(String item, int cost, boolean isBuying) {
+        if (!hasNext()) {
+            return false;
+        }
+        byte event = log.get();
+        if (event != GameLogWriter.YES && event != GameLogWriter.NO) {
+            throw diverged("a yes/no answer", event);
+        }
+        return event == GameLogWriter.YES;
+    }
+
+    public boolean playAgain(GameResult result) {
+        if (!hasNext()) {
+            return false;
+        }
+        byte event = log.get();
+        if (event != GameLogWriter.AGAIN_YES && event != GameLogWriter.AGAIN_NO) {
+            throw diverged("a play again answer", event);
+        }
+        return event == GameLogWriter.AGAIN_YES;
+    }
+
+    /**
+     * @return true if there are decisions left in the log.
+     */
+    public boolean hasNext() {
+        return log.hasRemaining();
+    }
+
+    private String readText(byte opcode) {
+        expect(opcode, "text event " + opcode);
+        int length = readVarint();
+        String text = new String(log.array(), log.arrayOffset() + log.position(), length, StandardCharsets.UTF_8);
+        log.position(log.position() + length);
+        return text;
+    }
+
+    private void expect(byte opcode, String what) {
+        byte event = log.get();
+        if (event != opcode) {
+            throw diverged(what, event);
+        }
+    }
+
+    private int readVarint() {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = log.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private IllegalStateException diverged(String expected, byte event) {
+        return new IllegalStateException("Replay diverged at byte " + (log.position() - 1)
+                + ": expected " + expected + " but the log has event " + event);
+    }
+}
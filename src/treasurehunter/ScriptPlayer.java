@@ -0,0 +1,63 @@
+package treasurehunter;
+
+/**
+ * The ScriptPlayer class answers the game's prompts from a CommandScript, so a game can be
+ * driven by a file or a bot without anybody typing. <p>
+ * Each prompt takes the next answer in the script. When the script runs out the player quits,
+ * just like a ConsolePlayer whose input has closed.
+ */
+
+public class ScriptPlayer implements Player {
+    // instance variables
+    private CommandScript script;
+    private OutputSink echo;
+
+    /**
+     * @param script Where the answers come from.
+     * @param echo Where to print each answer after its prompt, so the output reads like a
+     *             typed game; NullSink.INSTANCE to leave them out.
+     */
+    public ScriptPlayer(CommandScript script, OutputSink echo) {
+        this.script = script;
+        this.echo = echo;
+    }
+
+    public String chooseName() {
+        return next("");
+    }
+
+    public String chooseMode() {
+        return next("");
+    }
+
+    public String chooseAction(Hunter hunter, Town town) {
+        return next("x");
+    }
+
+    public String chooseItem(Hunter hunter, Shop shop, boolean isBuying) {
+        return next("");
+    }
+
+    public boolean confirmTrade(String item, int cost, boolean isBuying) {
+        return next("n").equalsIgnoreCase("y");
+    }
+
+    public boolean playAgain(GameResult result) {
+        return next("n").equalsIgnoreCase("y");
+    }
+
+    /**
+     * @param endOfScript The answer to use once the script has run out.
+     * @return The next answer in the script.
+     */
+    private String next(String endOfScript) {
+        String answer = script.next();
+        if (answer == null) {
+            answer = endOfScript;
+        }
+        if (echo.isEnabled()) {
+            echo.println(answer);
+        }
+        return answer;
+    }
+}
@@ -0,0 +1,317 @@
+package treasurehunter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The SharedWorld class lets many hunters, each playing their own game on their own thread, travel
+ * through the same World at the same time. <p>
+ * The world's records already make searching and digging first come first served: the first
+ * hunter to search a town takes its treasure, and the first to dig in it takes its gold, with the
+ * claim made by compare-and-set on the town's record. This class adds the hunters themselves: it
+ * keeps track of who is in which town, so a hunter looking for trouble can end up brawling with
+ * another hunter instead of a stranger. <p>
+ * The hunters in each town are kept in a small array that is replaced, never changed, under the
+ * lock of the town's bin in a ConcurrentHashMap, so towns are locked in stripes and finding an
+ * opponent doesn't lock anything. A hunter's gold belongs to the thread playing their game, so gold
+ * won or lost in a brawl with another hunter is posted to that hunter's Rival and settled at the
+ * end of their next turn. A hunter who beats another only has a claim on the loser's gold until
+ * the loser settles up, paying what they really have at the time; the winner is credited with
+ * what was paid, so gold is only ever moved from one hunter to another, never made up.
+ */
+
+public class SharedWorld {
+    // instance variables
+    private World world;
+    private ConcurrentHashMap<Integer, Rival[]> occupants;
+    private LongAdder hunterBrawls;
+
+    /**
+     * A hunter as the other hunters in the world see them.
+     */
+    public static class Rival {
+        private String name;
+        // read by other hunters' threads when they claim gold from this one
+        private volatile int town;
+        private AtomicInteger purse;
+        private AtomicInteger owed;
+        private ConcurrentLinkedQueue<Claim> claims;
+
+        Rival(String name) {
+            this.name = name;
+            town = -1;
+            purse = new AtomicInteger();
+            owed = new AtomicInteger();
+            claims = new ConcurrentLinkedQueue<>();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The gold other hunters can win from this hunter, as of their last turn, less
+         *         what other hunters have already claimed.
+         */
+        public int getPurse() {
+            return purse.get();
+        }
+
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Gold a hunter won off another hunter, which the loser still has to pay.
+     */
+    private static class Claim {
+        private Rival winner;
+        private int gold;
+
+        Claim(Rival winner, int gold) {
+            this.winner = winner;
+            this.gold = gold;
+        }
+    }
+
+    /**
+     * @param world The world the hunters share.
+     */
+    public SharedWorld(World world) {
+        this.world = world;
+        occupants = new ConcurrentHashMap<>();
+        hunterBrawls = new LongAdder();
+    }
+
+    // accessors
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * @return How many brawls have been fought between two hunters.
+     */
+    public long getHunterBrawls() {
+        return hunterBrawls.sum();
+    }
+
+    /**
+     * Adds a hunter to the world. They aren't in any town until they move to one.
+     *
+     * @param name The hunter's name.
+     * @param gold The gold the hunter starts with.
+     * @return The hunter, as other hunters see them.
+     */
+    public Rival join(String name, int gold) {
+        Rival rival = new Rival(name);
+        rival.purse.set(gold);
+        return rival;
+    }
+
+    /**
+     * Moves a hunter into a town, out of the town they were in.
+     *
+     * @param rival The hunter.
+     * @param town The id of the town.
+     */
+    public void moveTo(Rival rival, int town) {
+        if (rival.town == town) {
+            return;
+        }
+        leave(rival);
+        occupants.compute(town, (id, here) -> {
+            if (here == null) {
+                return new Rival[] {rival};
+            }
+            Rival[] more = Arrays.copyOf(here, here.length + 1);
+            more[here.length] = rival;
+            return more;
+        });
+        rival.town = town;
+    }
+
+    /**
+     * Takes a hunter out of the world, at the end of their game. Nothing more can be claimed from
+     * them, so they should settle up once more afterwards to pay the claims already made.
+     *
+     * @param rival The hunter.
+     */
+    public void leave(Rival rival) {
+        if (rival.town < 0) {
+            return;
+        }
+        occupants.computeIfPresent(rival.town, (id, here) -> {
+            if (here.length == 1) {
+                // nobody left, so the town doesn't take up any room
+                return null;
+            }
+            ArrayList<Rival> rest = new ArrayList<>(Arrays.asList(here));
+            rest.remove(rival);
+            return rest.toArray(new Rival[0]);
+        });
+        rival.town = -1;
+    }
+
+    /**
+     * @param town The id of the town.
+     * @return How many hunters are in the town.
+     */
+    public int countHunters(int town) {
+        Rival[] here = occupants.get(town);
+        return here == null ? 0 : here.length;
+    }
+
+    /**
+     * Picks another hunter in the same town to brawl with.
+     *
+     * @param rival The hunter looking for trouble.
+     * @param random The game's random numbers.
+     * @return The opponent, or null if the hunter is alone in town.
+     */
+    public Rival findOpponent(Rival rival, SplittableRandom random) {
+        Rival[] here = rival.town < 0 ? null : occupants.get(rival.town);
+        if (here == null || here.length < 2) {
+            return null;
+        }
+        // every other hunter is equally likely: pick one of the rest and step over this one
+        int mine = Arrays.asList(here).indexOf(rival);
+        int pick = random.nextInt(here.length - 1);
+        return here[mine >= 0 && pick >= mine ? pick + 1 : pick];
+    }
+
+    /**
+     * Settles a brawl the winner won: claims up to the stake from the loser, who pays it when they
+     * next settle up (see settle()). The winner is paid then, and only what the loser could pay.
+     * A loser who has left the world will never settle up again, so nothing can be claimed from them.
+     *
+     * @param winner The hunter who won.
+     * @param loser The hunter who lost.
+     * @param stake The gold at stake.
+     * @return The gold claimed, which is less than the stake if the loser's purse didn't have it,
+     *         and 0 if the loser has left.
+     */
+    public int claimGold(Rival winner, Rival loser, int stake) {
+        hunterBrawls.increment();
+        if (loser.town < 0) {
+            return 0;
+        }
+        int purse = loser.purse.get();
+        int claimed = Math.min(stake, purse);
+        while (claimed > 0 && !loser.purse.compareAndSet(purse, purse - claimed)) {
+            purse = loser.purse.get();
+            claimed = Math.min(stake, purse);
+        }
+        if (claimed == 0) {
+            return 0;
+        }
+        Claim claim = new Claim(winner, claimed);
+        loser.claims.offer(claim);
+        // a loser leaving now settles up after leaving, so either they take the claim and pay it,
+        // or it is taken back here
+        if (loser.town < 0 && loser.claims.remove(claim)) {
+            return 0;
+        }
+        return claimed;
+    }
+
+    /**
+     * Settles a brawl the winner won by the loser paying up.
+     *
+     * @param winner The hunter who won.
+     * @param gold The gold paid to them.
+     */
+    public void giveGold(Rival winner, int gold) {
+        hunterBrawls.increment();
+        winner.purse.addAndGet(gold);
+        winner.owed.addAndGet(gold);
+    }
+
+    /**
+     * Settles up a hunter with the other hunters, on the hunter's own thread: pays the claims of
+     * the hunters who beat them, as far as their gold goes, and collects what other hunters have
+     * paid them. Then shows other hunters how much gold the hunter now has.
+     *
+     * @param rival The hunter.
+     * @param gold The gold the hunter has before settling up.
+     * @return The change to the hunter's gold.
+     */
+    public int settle(Rival rival, int gold) {
+        int paid = 0;
+        for (Claim claim = rival.claims.poll(); claim != null; claim = rival.claims.poll()) {
+            int payment = Math.min(claim.gold, gold - paid);
+            if (payment > 0) {
+                claim.winner.owed.addAndGet(payment);
+                claim.winner.purse.addAndGet(payment);
+                paid += payment;
+            }
+        }
+        int received = rival.owed.getAndSet(0);
+        // anything paid to the hunter since getAndSet() is still owed, and already in the purse
+        rival.purse.set(gold - paid + received + rival.owed.get());
+        return received - paid;
+    }
+
+    /**
+     * Plays many hunters at once in one world and reports how they got on.
+     *
+     * @param args Optional: number of hunters, towns in the world, mode, turn limit and seed.
+     * @throws IOException if the world file can't be created.
+     * @throws InterruptedException if interrupted while the hunters play.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int hunters = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int towns = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        String mode = args.length > 2 ? args[2] : "n";
+        int maxTurns = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+
+        Path file = Files.createTempFile("shared", ".thw");
+        Files.delete(file);
+        SimulationResults results = new SimulationResults();
+        try (World world = World.open(file, seed, towns)) {
+            SharedWorld shared = new SharedWorld(world);
+            SplittableRandom random = new SplittableRandom(seed);
+            Thread[] threads = new Thread[hunters];
+            long start = System.nanoTime();
+            for (int h = 0; h < hunters; h++) {
+                GameContext context = new GameContext(new RandomPlayer("bot" + h, mode, random.nextLong()),
+                        NullSink.INSTANCE, random.nextLong());
+                context.setMaxTurns(maxTurns);
+                context.setSharedWorld(shared);
+                threads[h] = new Thread(() -> {
+                    GameResult result = new TreasureHunter(context).play();
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                });
+                threads[h].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            int searched = 0;
+            int dug = 0;
+            for (int town = 0; town < towns; town++) {
+                searched += world.isSearched(town) ? 1 : 0;
+                dug += world.isDug(town) ? 1 : 0;
+            }
+            System.out.println(hunters + " hunters in " + towns + " towns: " + results);
+            System.out.println(searched + " towns searched, " + dug + " dug, "
+                    + shared.getHunterBrawls() + " brawls between hunters");
+            System.out.printf("%.2f s%n", seconds);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
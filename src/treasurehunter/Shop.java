@@ -0,0 +1,395 @@
+package treasurehunter;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * The Shop class controls the cost of the items in the Treasure Hunt game. <p>
+ * The Shop class also acts as a go between for the Hunter's buyItem() method. <p>
+ * Prices are kept in tables indexed by item ordinal (see Items). A shop with base prices uses the
+ * Catalog's tables, which every such shop shares; a shop with prices of its own works them out
+ * once, when it is built. Either way, looking up a price is a single array read.
+ * This code has been adapted from Ivan Turner's original program -- thank you Mr. Turner!
+ */
+
+public class Shop {
+    // constants
+    // how far a tough town marks its prices up, and how much scarcity can move a price either way
+    private static final double TOUGHNESS_MARKUP = 0.5;
+    private static final double SCARCITY_RANGE = 0.25;
+
+    // instance variables
+    private GameContext context;
+    private double markdown;
+    private int[] buyPrices;
+    private int[] sellPrices;
+    private Hunter customer;
+
+    /**
+     * The Shop constructor takes in a markdown value and leaves customer null until one enters the shop.
+     * Items are sold at their base prices.
+     *
+     * @param markdown Percentage of markdown for selling items in decimal format.
+     * @param context The game session the shop belongs to.
+     */
+    public Shop(double markdown, GameContext context) {
+        this(markdown, null, context);
+    }
+
+    /**
+     * Creates a shop whose prices are the base prices scaled by a multiplier per item.
+     *
+     * @param markdown Percentage of markdown for selling items in decimal format.
+     * @param multipliers The price multiplier for each item ordinal, or null for base prices.
+     * @param context The game session the shop belongs to.
+     */
+    public Shop(double markdown, double[] multipliers, GameContext context) {
+        this.context = context;
+        this.markdown = markdown;
+        customer = null; // is set in the enter method
+
+        Catalog catalog = Catalog.get();
+        if (multipliers == null) {
+            buyPrices = catalog.getCosts();
+            sellPrices = catalog.getSellPrices(markdown);
+            return;
+        }
+        buyPrices = new int[catalog.getItemCount()];
+        sellPrices = new int[buyPrices.length];
+        for (int item = 0; item < buyPrices.length; item++) {
+            int cost = catalog.getCost(item);
+            if (cost > 0) {
+                cost = Math.max(1, (int) Math.round(cost * multipliers[item]));
+            }
+            buyPrices[item] = cost;
+            sellPrices[item] = (int) (cost * markdown);
+        }
+    }
+
+    /**
+     * Creates a shop with prices that have already been worked out, as when a saved game is loaded.
+     * The price tables are never changed, so shops can share them.
+     */
+    Shop(double markdown, int[] buyPrices, int[] sellPrices, GameContext context) {
+        this.context = context;
+        this.markdown = markdown;
+        this.buyPrices = buyPrices;
+        this.sellPrices = sellPrices;
+        customer = null;
+    }
+
+    /**
+     * @return The buy price table, indexed by item ordinal; don't change it.
+     */
+    int[] getBuyPrices() {
+        return buyPrices;
+    }
+
+    /**
+     * @return The sell price table, indexed by item ordinal; don't change it.
+     */
+    int[] getSellPrices() {
+        return sellPrices;
+    }
+
+    /**
+     * Writes the shop's prices to a saved game (see GameSnapshot).
+     *
+     * @param snapshot Where to write.
+     */
+    void writeTo(ByteBuffer snapshot) {
+        snapshot.putDouble(markdown).put((byte) buyPrices.length);
+        for (int item = 0; item < buyPrices.length; item++) {
+            snapshot.putShort((short) buyPrices[item]).putShort((short) sellPrices[item]);
+        }
+    }
+
+    /**
+     * Reads a shop back from a saved game.
+     *
+     * @param snapshot Where to read from.
+     * @param context The game session the shop belongs to.
+     * @return The shop with the prices it was saved with.
+     */
+    static Shop readFrom(ByteBuffer snapshot, GameContext context) {
+        double markdown = snapshot.getDouble();
+        int[] buyPrices = new int[snapshot.get()];
+        int[] sellPrices = new int[buyPrices.length];
+        for (int item = 0; item < buyPrices.length; item++) {
+            buyPrices[item] = snapshot.getShort();
+            sellPrices[item] = snapshot.getShort();
+        }
+        return new Shop(markdown, buyPrices, sellPrices, context);
+    }
+
+    /**
+     * Creates a shop with prices of its own: a tough town marks everything up, and each item
+     * is a little cheaper or dearer depending on how scarce it is in this town.
+     *
+     * @param markdown Percentage of markdown for selling items in decimal format.
+     * @param toughTown Whether the shop's town is a tough town.
+     * @param random Where the scarcity of each item is drawn from.
+     * @param context The game session the shop belongs to.
+     * @return The new shop.
+     */
+    public static Shop withTownPrices(double markdown, boolean toughTown, SplittableRandom random, GameContext context) {
+        double toughness = toughTown ? 1 + TOUGHNESS_MARKUP : 1;
+        double[] multipliers = new double[Catalog.get().getItemCount()];
+        for (int item = 0; item < multipliers.length; item++) {
+            double scarcity = 1 + (random.nextDouble() * 2 - 1) * SCARCITY_RANGE;
+            multipliers[item] = toughness * scarcity;
+        }
+        return new Shop(markdown, multipliers, context);
+    }
+
+    /**
+     * Method for entering the shop.
+     *
+     * @param hunter the Hunter entering the shop
+     * @param buyOrSell String that determines if hunter is "B"uying or "S"elling
+     */
+    public void enter(Hunter hunter, String buyOrSell) {
+        long start = GameMetrics.start();
+        customer = hunter;
+        OutputSink out = context.getOut();
+        Player player = context.getPlayer();
+
+        if (buyOrSell.equals("b")) {
+            out.println("Welcome to the shop! We have the finest wares in town.");
+            out.println("Currently we have the following items:");
+            if (out.isEnabled()) {
+                out.println(inventory());
+            }
+            out.print("What're you lookin' to buy? ");
+            String name = askForItem(player, hunter, true);
+            int item = Items.ordinalOf(name);
+            int cost = checkMarketPrice(item, true);
+            if (customer.hasItemInKit(Items.SWORD)) {
+                out.println("The sword intimidates the shopkeeper and he gives you the item freely");
+                buyItem(item, cost);
+            } else if (context.getSamuraiMode()) {
+                if (out.isEnabled()) {
+                    out.print("It'll cost you " + cost + " gold. Buy it (y/n)? ");
+                }
+
+                if (askToConfirm(player, name, cost, true)) {
+                    buyItem(item, cost);
+                }
+            } else if (cost == 0) {
+                out.println("We ain't got none of those.");
+            } else {
+                if (out.isEnabled()) {
+                    out.print("It'll cost you " + cost + " gold. Buy it (y/n)? ");
+                }
+
+                if (askToConfirm(player, name, cost, true)) {
+                    buyItem(item, cost);
+                }
+            }
+        } else {
+            out.println("What're you lookin' to sell? ");
+            if (out.isEnabled()) {
+                out.print("You currently have the following items: " + customer.getInventory());
+            }
+            String name = askForItem(player, hunter, false);
+            int item = Items.ordinalOf(name);
+            int cost = checkMarketPrice(item, false);
+            if (cost == 0) {
+                out.println("We don't want none of those.");
+            } else {
+                if (out.isEnabled()) {
+                    out.print("It'll get you " + cost + " gold. Sell it (y/n)? ");
+                }
+
+                if (askToConfirm(player, name, cost, false)) {
+                    sellItem(item, cost);
+                }
+            }
+        }
+        GameMetrics.record(GameMetrics.SHOP_ENTER, start);
+    }
+
+    /**
+     * Asks the player which item to trade. The wait for the answer isn't counted in the metrics.
+     *
+     * @return The item's name, in lowercase.
+     */
+    private String askForItem(Player player, Hunter hunter, boolean isBuying) {
+        long asked = GameMetrics.startWaiting();
+        String name = player.chooseItem(hunter, this, isBuying).toLowerCase();
+        GameMetrics.stopWaiting(asked);
+        return name;
+    }
+
+    /**
+     * Asks the player to confirm a trade. The wait for the answer isn't counted in the metrics.
+     *
+     * @return true if the player goes ahead with the trade.
+     */
+    private boolean askToConfirm(Player player, String name, int cost, boolean isBuying) {
+        long asked = GameMetrics.startWaiting();
+        boolean accepted = player.confirmTrade(name, cost, isBuying);
+        GameMetrics.stopWaiting(asked);
+        return accepted;
+    }
+
+    /**
+     * Buys or sells an item without asking the Player anything, as a GameSession does.<p>
+     * The shopkeeper says the same things as in enter(), minus the questions.
+     *
+     * @param hunter the Hunter trading with the shop
+     * @param item The ordinal of the item being bought or sold.
+     * @param isBuying true if the hunter is buying the item.
+     */
+    void trade(Hunter hunter, int item, boolean isBuying) {
+        long start = GameMetrics.start();
+        customer = hunter;
+        OutputSink out = context.getOut();
+        int cost = checkMarketPrice(item, isBuying);
+        if (!isBuying) {
+            if (cost == 0) {
+                out.println("We don't want none of those.");
+            } else {
+                sellItem(item, cost);
+            }
+        } else if (customer.hasItemInKit(Items.SWORD)) {
+            out.println("The sword intimidates the shopkeeper and he gives you the item freely");
+            buyItem(item, cost);
+        } else if (context.getSamuraiMode() || cost != 0) {
+            buyItem(item, cost);
+        } else {
+            out.println("We ain't got none of those.");
+        }
+        GameMetrics.record(GameMetrics.SHOP_ENTER, start);
+    }
+
+    /**
+     * A method that returns a string showing the items available in the shop
+     * and this shop's prices for them.
+     *
+     * @return the string representing the shop's items available for purchase and their prices.
+     */
+    public String inventory() {
+        StringBuilder str = new StringBuilder(160);
+        Catalog catalog = Catalog.get();
+        for (int item = 0; item < buyPrices.length; item++) {
+            if (item == Items.SWORD && !context.getSamuraiMode()) {
+                continue;
+            }
+            str.append(catalog.getLabel(item)).append(": ").append(buyPrices[item]).append(" gold\n");
+        }
+        return str.toString();
+    }
+
+    /**
+     * A method that lets the customer (a Hunter) buy an item.
+     *
+     * @param item The item being bought.
+     */
+    public void buyItem(String item) {
+        int ordinal = Items.ordinalOf(item);
+        buyItem(ordinal, checkMarketPrice(ordinal, true));
+    }
+
+    /**
+     * Lets the customer buy an item at a price that has already been looked up.
+     *
+     * @param item The ordinal of the item being bought.
+     * @param costOfItem This shop's price for the item.
+     */
+    private void buyItem(int item, int costOfItem) {
+        long start = GameMetrics.start();
+        if (customer.buyItem(item, costOfItem)) {
+            if (context.getOut().isEnabled()) {
+                context.getOut().println("Ye' got yerself a " + Items.nameOf(item) + ". Come again soon.");
+            }
+        } else if (item != Items.NONE && !customer.hasItemInKit(item) && Long.bitCount(customer.getKitItems()) >= customer.getKitCapacity()) {
+            context.getOut().println("Yer kit's full, so there's no room for a " + Items.nameOf(item) + ". Sell something first!");
+        } else {
+            context.getOut().println("Hmm, either you don't have enough gold or you've already got one of those!");
+        }
+        GameMetrics.record(GameMetrics.BUY, start);
+    }
+
+    /**
+     * A pathway method that lets the Hunter sell an item.
+     *
+     * @param item The item being sold.
+     */
+    public void sellItem(String item) {
+        int ordinal = Items.ordinalOf(item);
+        sellItem(ordinal, checkMarketPrice(ordinal, false));
+    }
+
+    /**
+     * Lets the Hunter sell an item at a price that has already been looked up.
+     *
+     * @param item The ordinal of the item being sold.
+     * @param buyBackPrice This shop's buy back price for the item.
+     */
+    private void sellItem(int item, int buyBackPrice) {
+        long start = GameMetrics.start();
+        if (customer.sellItem(item, buyBackPrice)) {
+            context.getOut().println("Pleasure doin' business with you.");
+        } else {
+            context.getOut().println("Stop stringin' me along!");
+        }
+        GameMetrics.record(GameMetrics.SELL, start);
+    }
+
+    /**
+     * Determines and returns the cost of buying or selling an item.
+     *
+     * @param item The item in question.
+     * @param isBuying Whether the item is being bought or sold.
+     * @return The cost of buying or selling the item based on the isBuying parameter.
+     */
+    public int checkMarketPrice(String item, boolean isBuying) {
+        return checkMarketPrice(Items.ordinalOf(item), isBuying);
+    }
+
+    /**
+     * Determines and returns the cost of buying or selling an item.
+     *
+     * @param item The ordinal of the item in question.
+     * @param isBuying Whether the item is being bought or sold.
+     * @return The cost of buying or selling the item, or 0 if the shop doesn't deal in it.
+     */
+    public int checkMarketPrice(int item, boolean isBuying) {
+        if (item < 0 || item >= buyPrices.length) {
+            return 0;
+        }
+        if (isBuying) {
+            return buyPrices[item];
+        } else {
+            return sellPrices[item];
+        }
+    }
+
+    /**
+     * Looks up this shop's price for an item.
+     *
+     * @param item The item being checked for cost.
+     * @return The cost of the item or 0 if the item is not found.
+     */
+    public int getCostOfItem(String item) {
+        return checkMarketPrice(Items.ordinalOf(item), true);
+    }
+
+    /**
+     * Looks up the price of an item with the markdown applied.
+     *
+     * @param item The item being sold.
+     * @return The sell price of the item.
+     */
+    public int getBuyBackCost(String item) {
+        return checkMarketPrice(Items.ordinalOf(item), false);
+    }
+
+    /**
+     * @return The percentage of markdown for selling items in decimal format.
+     */
+    public double getMarkdown() {
+        return markdown;
+    }
+}
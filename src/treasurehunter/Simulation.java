@@ -0,0 +1,159 @@
+package treasurehunter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+
+/**
+ * The Simulation class plays many complete games headlessly to measure game balance. <p>
+ * A player strategy makes every choice, output goes to the NullSink, and the games are split across
+ * all cores on a fork-join pool. Only the tallied results are kept. <p>
+ * Every game is seeded from one master seed. Each task splits its generator when it splits its
+ * range of games, so the same master seed always plays the same games, however the work is
+ * scheduled across threads.
+ */
+
+public class Simulation {
+    // constants
+    private static final int GAMES_PER_TASK = 1024;
+
+    // instance variables
+    private LongFunction<Player> players;
+    private int maxTurns;
+    private boolean townPrices;
+    private boolean collectStats;
+
+    /**
+     * @param players Creates a player from a seed for the player's own choices.
+     * @param maxTurns The most turns a game may last before it counts as a quit.
+     */
+    public Simulation(LongFunction<Player> players, int maxTurns) {
+        this.players = players;
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * @param townPrices Whether each town's shop has prices of its own (see Shop.withTownPrices()).
+     */
+    public void setTownPrices(boolean townPrices) {
+        this.townPrices = townPrices;
+    }
+
+    /**
+     * @param collectStats Whether to keep the distributions of the results as well as the tally
+     *                     (see SimulationResults.getStats()).
+     */
+    public void setCollectStats(boolean collectStats) {
+        this.collectStats = collectStats;
+    }
+
+    /**
+     * Plays the given number of games on the common fork-join pool.
+     *
+     * @param games How many games to play.
+     * @param seed The master seed the games are seeded from.
+     * @return The tallied results.
+     */
+    public SimulationResults run(long games, long seed) {
+        return ForkJoinPool.commonPool().invoke(new Batch(0, games, new SplittableRandom(seed)));
+    }
+
+    /**
+     * Plays a single game without any output.
+     *
+     * @param random The task's generator, which supplies the game's seeds.
+     * @param stats The task's stats, or null if they aren't being collected.
+     * @return How the game ended.
+     */
+    private GameResult playGame(SplittableRandom random, GameStats stats) {
+        Player player = players.apply(random.nextLong());
+        GameContext context = new GameContext(player, NullSink.INSTANCE, random.nextLong());
+        context.setMaxTurns(maxTurns);
+        context.setTownPrices(townPrices);
+        context.setStats(stats);
+        GameResult result = new TreasureHunter(context).play();
+        if (stats != null) {
+            stats.add(result);
+        }
+        return result;
+    }
+
+    /**
+     * A range of game numbers that is split in half until it is small enough to play directly.
+     */
+    private class Batch extends RecursiveTask<SimulationResults> {
+        private static final long serialVersionUID = 1L;
+
+        private long from;
+        private long to;
+        private SplittableRandom random;
+
+        Batch(long from, long to, SplittableRandom random) {
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        protected SimulationResults compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                SimulationResults results = new SimulationResults();
+                // each task fills its own stats, so the threads never share them
+                GameStats stats = collectStats ? new GameStats() : null;
+                for (long game = from; game < to; game++) {
+                    results.add(playGame(random, stats));
+                }
+                results.setStats(stats);
+                return results;
+            }
+            long middle = (from + to) >>> 1;
+            Batch left = new Batch(from, middle, random.split());
+            left.fork();
+            SimulationResults right = new Batch(middle, to, random).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Runs a simulation with random players.
+     *
+     * @param args Optional: number of games, mode ("h", "e", "n", "s"), turn limit, master seed, and
+     *             a file to write the distributions of the results to ("stats.csv" or "stats.json").
+     * @throws IOException if the stats file can't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100000;
+        String mode = args.length > 1 ? args[1] : "n";
+        int maxTurns = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        String statsFile = args.length > 4 ? args[4] : null;
+
+        Simulation simulation = new Simulation(playerSeed -> new RandomPlayer("bot", mode, playerSeed), maxTurns);
+        simulation.setTownPrices(Boolean.getBoolean(GameContext.TOWN_PRICES_PROPERTY));
+        simulation.setCollectStats(statsFile != null);
+        long start = System.nanoTime();
+        SimulationResults results = simulation.run(games, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("seed " + seed + ": " + results);
+        System.out.printf("%.2f s, %.0f games/minute%n", seconds, games / seconds * 60);
+        if (statsFile != null) {
+            System.out.println(results.getStats());
+            try (Writer writer = Files.newBufferedWriter(Paths.get(statsFile), StandardCharsets.UTF_8)) {
+                if (statsFile.endsWith(".json")) {
+                    results.getStats().writeJson(writer);
+                } else {
+                    results.getStats().writeCsv(writer);
+                }
+            }
+        }
+        if (GameMetrics.ENABLED) {
+            System.out.print(GameMetrics.snapshot());
+        }
+    }
+}
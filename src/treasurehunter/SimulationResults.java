@@ -0,0 +1,115 @@
+package treasurehunter;
+
+/**
+ * The SimulationResults class tallies the outcome of many headless games. <p>
+ * Results from different worker threads are combined with merge(), so no single
+ * game result has to be kept around. A simulation can also carry along the distributions of
+ * the results in a GameStats.
+ */
+
+public class SimulationResults {
+    // instance variables
+    private long games;
+    private long wins;
+    private long losses;
+    private long quits;
+    private long totalTurns;
+    private long totalGold;
+    private GameStats stats;
+
+    /**
+     * Adds one finished game to the tally.
+     *
+     * @param result The result of the game.
+     */
+    public void add(GameResult result) {
+        add(result.getOutcome(), result.getTurns(), result.getGold());
+    }
+
+    /**
+     * Adds one finished game to the tally without a GameResult (see BatchSimulator).
+     *
+     * @param outcome How the game ended.
+     * @param turns The number of turns played.
+     * @param gold The gold the hunter had at the end.
+     */
+    void add(GameResult.Outcome outcome, int turns, int gold) {
+        games++;
+        if (outcome == GameResult.Outcome.WON) {
+            wins++;
+        } else if (outcome == GameResult.Outcome.LOST) {
+            losses++;
+        } else {
+            quits++;
+        }
+        totalTurns += turns;
+        totalGold += gold;
+    }
+
+    /**
+     * Adds another tally into this one.
+     *
+     * @param other The results to merge in.
+     * @return this tally, for chaining.
+     */
+    public SimulationResults merge(SimulationResults other) {
+        games += other.games;
+        wins += other.wins;
+        losses += other.losses;
+        quits += other.quits;
+        totalTurns += other.totalTurns;
+        totalGold += other.totalGold;
+        if (stats == null) {
+            stats = other.stats;
+        } else if (other.stats != null) {
+            stats.merge(other.stats);
+        }
+        return this;
+    }
+
+    // accessors
+    public long getGames() {
+        return games;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getQuits() {
+        return quits;
+    }
+
+    /**
+     * @return The distributions of the results, or null if the simulation didn't collect them.
+     */
+    public GameStats getStats() {
+        return stats;
+    }
+
+    void setStats(GameStats stats) {
+        this.stats = stats;
+    }
+
+    public double getWinRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    public double getAverageTurns() {
+        return games == 0 ? 0 : (double) totalTurns / games;
+    }
+
+    public double getAverageGold() {
+        return games == 0 ? 0 : (double) totalGold / games;
+    }
+
+    public String toString() {
+        return games + " games: " + wins + " won, " + losses + " lost, " + quits + " quit"
+                + String.format("%nwin rate %.4f, average turns %.2f, average gold %.2f",
+                        getWinRate(), getAverageTurns(), getAverageGold());
+    }
+}
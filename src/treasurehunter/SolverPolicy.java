@@ -0,0 +1,67 @@
+package treasurehunter;
+
+/**
+ * The SolverPolicy interface is a strategy as the WinProbabilitySolver sees it: for every
+ * state (see SolverState) it gives the probability of each action. <p>
+ * The actions are the menu choices, with buying and selling split out by item.
+ */
+
+public interface SolverPolicy {
+    // actions
+    int LOOK = 0;
+    int HUNT = 1;
+    int DIG = 2;
+    int MOVE = 3;
+    int QUIT = 4;
+    // BUY + item ordinal and SELL + item ordinal
+    int BUY = 5;
+    int SELL = BUY + Items.count();
+    int ACTIONS = SELL + Items.count();
+
+    /**
+     * Fills in the probability of each action in the given state. The array is cleared
+     * before each call, and the probabilities must add up to 1.
+     *
+     * @param state The packed state.
+     * @param probabilities One entry per action.
+     */
+    void choose(int state, double[] probabilities);
+
+    /**
+     * The same strategy as RandomPlayer: one of b, s, m, l, h, d uniformly, then a uniformly
+     * random shop item (never the sword), always accepting the price.
+     */
+    SolverPolicy RANDOM = (state, probabilities) -> {
+        double each = 1.0 / 6;
+        probabilities[LOOK] = each;
+        probabilities[HUNT] = each;
+        probabilities[DIG] = each;
+        probabilities[MOVE] = each;
+        for (int item = 0; item < Items.SWORD; item++) {
+            probabilities[BUY + item] = each / Items.SWORD;
+            probabilities[SELL + item] = each / Items.SWORD;
+        }
+    };
+
+    /**
+     * A sensible fixed strategy: search and dig every town, buy a shovel and the item needed to
+     * move on, brawl for gold when short of it, and move on once the town is done.
+     */
+    SolverPolicy CAUTIOUS = (state, probabilities) -> {
+        int gold = SolverState.gold(state);
+        int needed = SolverState.neededItem(state);
+        if (!SolverState.isSearched(state)) {
+            probabilities[HUNT] = 1;
+        } else if (!SolverState.hasItem(state, Items.SHOVEL) && gold >= 8 + 10) {
+            probabilities[BUY + Items.SHOVEL] = 1;
+        } else if (SolverState.hasItem(state, Items.SHOVEL) && !SolverState.isDug(state)) {
+            probabilities[DIG] = 1;
+        } else if (SolverState.hasItem(state, needed)) {
+            probabilities[MOVE] = 1;
+        } else if (gold >= 30) {
+            probabilities[BUY + needed] = 1;
+        } else {
+            probabilities[LOOK] = 1;
+        }
+    };
+}
@@ -0,0 +1,118 @@
+package treasurehunter;
+
+/**
+ * The SolverState class packs everything that matters about a game in progress into one int,
+ * for the WinProbabilitySolver. <p>
+ * Bits 0-11 hold the gold, 12-19 the kit (see Kit), 20-22 the treasures found, 23-25 the
+ * terrain around the town, and then one bit each for a tough town, a searched town and a
+ * town that has been dug in. <p>
+ * The content is that of the catalog.txt that comes with the game (see Catalog): eight items, six
+ * terrains and three treasures fill those bits exactly, so the WinProbabilitySolver refuses to run
+ * with any other catalog rather than give answers for content it doesn't have.
+ */
+
+public class SolverState {
+    // constants
+    public static final int MAX_GOLD = 4095;
+
+    // the terrains of the catalog.txt that comes with the game (see Catalog), in its order, with the item each one needs
+    public static final String[] TERRAINS = {"Mountains", "Ocean", "Plains", "Desert", "Jungle", "Marsh"};
+    public static final int[] TERRAIN_ITEMS = {Items.ROPE, Items.BOAT, Items.HORSE, Items.WATER, Items.MACHETE, Items.BOOTS};
+    public static final double[] TERRAIN_CHANCES = {0.2, 0.1, 0.1, 0.2, 0.2, 0.2};
+
+    // treasures that count towards a win, in the order catalog.txt lists them
+    public static final String[] TREASURES = {"crown", "trophy", "gem"};
+    public static final int ALL_TREASURES = 0b111;
+
+    private static final int KIT_SHIFT = 12;
+    private static final int TREASURE_SHIFT = 20;
+    private static final int TERRAIN_SHIFT = 23;
+    private static final int TOUGH_BIT = 1 << 26;
+    private static final int SEARCHED_BIT = 1 << 27;
+    private static final int DUG_BIT = 1 << 28;
+
+    private SolverState() {
+    }
+
+    /**
+     * @return The packed state.
+     */
+    public static int encode(int gold, int kit, int treasures, int terrain, boolean tough, boolean searched, boolean dug) {
+        int state = gold | kit << KIT_SHIFT | treasures << TREASURE_SHIFT | terrain << TERRAIN_SHIFT;
+        if (tough) {
+            state |= TOUGH_BIT;
+        }
+        if (searched) {
+            state |= SEARCHED_BIT;
+        }
+        if (dug) {
+            state |= DUG_BIT;
+        }
+        return state;
+    }
+
+    public static int gold(int state) {
+        return state & MAX_GOLD;
+    }
+
+    public static int kit(int state) {
+        return (state >>> KIT_SHIFT) & 0xFF;
+    }
+
+    public static boolean hasItem(int state, int item) {
+        return (kit(state) & (1 << item)) != 0;
+    }
+
+    public static int treasures(int state) {
+        return (state >>> TREASURE_SHIFT) & ALL_TREASURES;
+    }
+
+    public static int terrain(int state) {
+        return (state >>> TERRAIN_SHIFT) & 0b111;
+    }
+
+    /**
+     * @return The ordinal of the item needed to leave the current town.
+     */
+    public static int neededItem(int state) {
+        return TERRAIN_ITEMS[terrain(state)];
+    }
+
+    public static boolean isTough(int state) {
+        return (state & TOUGH_BIT) != 0;
+    }
+
+    public static boolean isSearched(int state) {
+        return (state & SEARCHED_BIT) != 0;
+    }
+
+    public static boolean isDug(int state) {
+        return (state & DUG_BIT) != 0;
+    }
+
+    public static int withGold(int state, int gold) {
+        return (state & ~MAX_GOLD) | gold;
+    }
+
+    public static int withKit(int state, int kit) {
+        return (state & ~(0xFF << KIT_SHIFT)) | kit << KIT_SHIFT;
+    }
+
+    public static int withTreasures(int state, int treasures) {
+        return (state & ~(ALL_TREASURES << TREASURE_SHIFT)) | treasures << TREASURE_SHIFT;
+    }
+
+    public static int withSearched(int state) {
+        return state | SEARCHED_BIT;
+    }
+
+    public static int withDug(int state) {
+        return state | DUG_BIT;
+    }
+
+    public static String toString(int state) {
+        return "gold " + gold(state) + ", kit " + Integer.toBinaryString(kit(state))
+                + ", treasures " + Integer.toBinaryString(treasures(state)) + ", " + TERRAINS[terrain(state)]
+                + (isTough(state) ? ", tough" : "") + (isSearched(state) ? ", searched" : "") + (isDug(state) ? ", dug" : "");
+    }
+}
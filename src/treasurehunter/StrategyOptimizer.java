@@ -0,0 +1,165 @@
+package treasurehunter;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * The StrategyOptimizer class searches for the PolicyPlayer parameters that win most often in a
+ * difficulty mode, using the cross-entropy method. <p>
+ * Each generation draws a population of strategies from a normal distribution per parameter,
+ * plays every strategy over the same seeded games (so they are compared on equal luck), and then
+ * moves the distribution towards the best fifth of the population: the most wins, and between
+ * strategies that win equally often, the fewest turns. The spread shrinks as the
+ * population agrees, and the mean of the distribution is the answer. <p>
+ * The strategies of a generation are played in parallel, and each one's games are split across
+ * cores by Simulation, so a search of a few dozen generations takes a minute or two.
+ */
+
+public class StrategyOptimizer {
+    // constants
+    private static final double ELITE_FRACTION = 0.2;
+    private static final double SMOOTHING = 0.7;
+    private static final double MIN_SPREAD = 0.5;
+
+    // instance variables
+    private String mode;
+    private int population;
+    private int games;
+    private int maxTurns;
+    private double[] mean;
+    private double[] spread;
+
+    /**
+     * @param mode The difficulty, as answered to the mode prompt.
+     * @param population How many strategies to try each generation.
+     * @param games How many games to play each strategy.
+     * @param maxTurns The turn limit of each game.
+     */
+    public StrategyOptimizer(String mode, int population, int games, int maxTurns) {
+        this.mode = mode;
+        this.population = population;
+        this.games = games;
+        this.maxTurns = maxTurns;
+
+        // start from the middle of every range, spread across all of it
+        mean = new double[PolicyPlayer.count()];
+        spread = new double[PolicyPlayer.count()];
+        for (int i = 0; i < mean.length; i++) {
+            mean[i] = (PolicyPlayer.getLowest(i) + PolicyPlayer.getHighest(i)) / 2;
+            spread[i] = (PolicyPlayer.getHighest(i) - PolicyPlayer.getLowest(i)) / 2;
+        }
+    }
+
+    /**
+     * @return The current best guess at the strategy.
+     */
+    public double[] getMean() {
+        return mean.clone();
+    }
+
+    /**
+     * Plays a strategy.
+     *
+     * @param parameters The strategy.
+     * @param games How many games to play.
+     * @param seed The master seed the games are seeded from.
+     * @return The results.
+     */
+    public SimulationResults evaluate(double[] parameters, long games, long seed) {
+        Simulation simulation = new Simulation(playerSeed -> new PolicyPlayer("bot", mode, parameters), maxTurns);
+        return simulation.run(games, seed);
+    }
+
+    /**
+     * Runs one generation of the search.
+     *
+     * @param random Where the strategies and the games' seed come from.
+     * @return The win rate of the best strategy in the generation.
+     */
+    public double step(SplittableRandom random) {
+        double[][] candidates = new double[population][];
+        for (int c = 0; c < population; c++) {
+            candidates[c] = sample(random);
+        }
+        long seed = random.nextLong();
+        SimulationResults[] results = IntStream.range(0, population).parallel()
+                .mapToObj(c -> evaluate(candidates[c], games, seed))
+                .toArray(SimulationResults[]::new);
+
+        // the elite are the best fifth of the population: the most wins, and the fewest turns only
+        // between strategies that won the same number of games
+        Integer[] order = new Integer[population];
+        for (int c = 0; c < population; c++) {
+            order[c] = c;
+        }
+        Arrays.sort(order, (a, b) -> results[a].getWins() != results[b].getWins()
+                ? Long.compare(results[b].getWins(), results[a].getWins())
+                : Double.compare(results[a].getAverageTurns(), results[b].getAverageTurns()));
+        int elite = Math.max(2, (int) (population * ELITE_FRACTION));
+
+        for (int i = 0; i < mean.length; i++) {
+            double sum = 0;
+            for (int e = 0; e < elite; e++) {
+                sum += candidates[order[e]][i];
+            }
+            double eliteMean = sum / elite;
+            double squares = 0;
+            for (int e = 0; e < elite; e++) {
+                double d = candidates[order[e]][i] - eliteMean;
+                squares += d * d;
+            }
+            double eliteSpread = Math.sqrt(squares / elite);
+            mean[i] = SMOOTHING * eliteMean + (1 - SMOOTHING) * mean[i];
+            spread[i] = Math.max(MIN_SPREAD, SMOOTHING * eliteSpread + (1 - SMOOTHING) * spread[i]);
+        }
+        return results[order[0]].getWinRate();
+    }
+
+    /**
+     * Draws a strategy from the current distribution, kept inside each parameter's range.
+     */
+    private double[] sample(SplittableRandom random) {
+        double[] parameters = new double[mean.length];
+        for (int i = 0; i < parameters.length; i++) {
+            double value = mean[i] + spread[i] * random.nextGaussian();
+            parameters[i] = Math.max(PolicyPlayer.getLowest(i), Math.min(PolicyPlayer.getHighest(i), value));
+        }
+        return parameters;
+    }
+
+    /**
+     * Searches for the best strategy in a mode and checks it against random play on fresh games.
+     *
+     * @param args The mode, generations, population, games per strategy, turn limit and seed.
+     */
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "n";
+        int generations = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int population = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int games = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+        int maxTurns = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+
+        StrategyOptimizer optimizer = new StrategyOptimizer(mode, population, games, maxTurns);
+        SplittableRandom random = new SplittableRandom(seed);
+        long start = System.nanoTime();
+        for (int generation = 1; generation <= generations; generation++) {
+            double best = optimizer.step(random);
+            System.out.printf("generation %3d: best win rate %.4f (%.1f s)%n",
+                    generation, best, (System.nanoTime() - start) / 1e9);
+        }
+
+        double[] strategy = optimizer.getMean();
+        long checkGames = 10L * games;
+        long checkSeed = random.nextLong();
+        SimulationResults policy = optimizer.evaluate(strategy, checkGames, checkSeed);
+        SimulationResults baseline = new Simulation(playerSeed -> new RandomPlayer("bot", mode, playerSeed), maxTurns)
+                .run(checkGames, checkSeed);
+        System.out.println();
+        System.out.println("Best strategy for mode " + mode + ":");
+        System.out.print(PolicyPlayer.describe(strategy));
+        System.out.println("policy: " + policy);
+        System.out.println("random: " + baseline);
+    }
+}
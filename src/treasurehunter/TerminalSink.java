@@ -0,0 +1,99 @@
+package treasurehunter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The TerminalSink class writes output to a terminal or network stream through a large buffer. <p>
+ * Nothing is written until flush() is called, which the game does once per turn and before
+ * waiting for input, so a whole status block goes out in a single write. Like PrintStream,
+ * it never throws; a failed write just stops further output.
+ */
+
+public class TerminalSink implements OutputSink {
+    // constants
+    private static final int DEFAULT_BUFFER_SIZE = 16384;
+    private static final String NEWLINE = System.lineSeparator();
+
+    // instance variables
+    private Writer writer;
+    private boolean failed;
+
+    /**
+     * @param out The stream to write to.
+     */
+    public TerminalSink(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param out The stream to write to.
+     * @param bufferSize The number of characters buffered between flushes.
+     */
+    public TerminalSink(OutputStream out, int bufferSize) {
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), bufferSize);
+        failed = false;
+    }
+
+    /**
+     * Creates the sink for a player at the console. Colors are left out when the
+     * NO_COLOR environment variable is set.
+     *
+     * @return A buffered sink on standard output.
+     */
+    public static OutputSink forConsole() {
+        OutputSink console = new TerminalSink(System.out);
+        if (System.getenv("NO_COLOR") != null) {
+            console = new NoColorSink(console);
+        }
+        return console;
+    }
+
+    public boolean isEnabled() {
+        return true;
+    }
+
+    public void print(String text) {
+        write(text);
+    }
+
+    public void println(Object value) {
+        write(String.valueOf(value));
+        write(NEWLINE);
+    }
+
+    public void println(String text) {
+        write(text);
+        write(NEWLINE);
+    }
+
+    public void println() {
+        write(NEWLINE);
+    }
+
+    public void flush() {
+        if (failed) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            failed = true;
+        }
+    }
+
+    private void write(String text) {
+        if (failed) {
+            return;
+        }
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            failed = true;
+        }
+    }
+}
@@ -1,5 +1,8 @@
+package treasurehunter;
+
 /**
- * The Terrain class is designed to represent the zones between the towns in the Treasure Hunter game.
+ * The Terrain class is designed to represent the zones between the towns in the Treasure Hunter game. <p>
+ * The game's terrains are built once by the Catalog and shared by every town they surround.
  * This code has been adapted from Ivan Turner's original program -- thank you Mr. Turner!
  */
 
@@ -7,6 +10,7 @@ public class Terrain {
     // instance variables
     private String terrainName;
     private String neededItem;
+    private int neededItemOrdinal;
 
     /**
      * Sets the class member variables
@@ -17,6 +21,20 @@ public class Terrain {
     public Terrain(String name, String item) {
         terrainName = name;
         neededItem = item.toLowerCase();
+        neededItemOrdinal = Items.ordinalOf(neededItem);
+    }
+
+    /**
+     * Builds one of the catalog's terrains, whose item has already been looked up.
+     *
+     * @param name The name of the zone.
+     * @param item The item needed in order to cross the zone, in lowercase.
+     * @param itemOrdinal The item's ordinal.
+     */
+    Terrain(String name, String item, int itemOrdinal) {
+        terrainName = name;
+        neededItem = item;
+        neededItemOrdinal = itemOrdinal;
     }
 
     // accessors
@@ -28,6 +46,13 @@ public class Terrain {
         return neededItem;
     }
 
+    /**
+     * @return The ordinal of the item needed to cross (see Items).
+     */
+    public int getNeededItemOrdinal() {
+        return neededItemOrdinal;
+    }
+
     /**
      * Guards against a hunter crossing the zone without the proper item.
      * Searches the hunter's inventory for the proper item and determines whether the hunter can cross.
@@ -36,7 +61,7 @@ public class Terrain {
      * @return true if the Hunter has the proper item.
      */
     public boolean canCrossTerrain(Hunter hunter) {
-        if (hunter.hasItemInKit(neededItem)) {
+        if (hunter.hasItemInKit(neededItemOrdinal)) {
             return true;
         }
         return false;
@@ -0,0 +1,460 @@
+package treasurehunter;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * The Town Class is where it all happens.
+ * The Town is designed to manage all the things a Hunter can do in town.
+ * This code has been adapted from Ivan Turner's original program -- thank you Mr. Turner!
+ */
+public class Town {
+    // constants
+    // the gold at stake in a brawl, less 1: 1 to 10 gold, all equally likely
+    static final AliasTable BRAWL_GOLD = AliasTable.uniform(10);
+    // the gold found by digging: a third of the time 1 to 19 gold, all equally likely, otherwise dirt (0)
+    static final AliasTable DIG_GOLD = digGold(19);
+
+    // instance variables
+    private GameContext context;
+    private OutputSink out;
+    private Hunter hunter;
+    private Shop shop;
+    private Terrain terrain;
+    private String printMessage;
+    private boolean toughTown;
+    private boolean searchedForTreasure;
+    private String foundTreasure;
+    private World world;
+    private int townId;
+    private SharedWorld sharedWorld;
+    private SharedWorld.Rival rival;
+
+    /**
+     * The Town Constructor takes in a shop and the surrounding terrain, but leaves the hunter as null until one arrives.
+     *
+     * @param shop The town's shoppe.
+     * @param toughness The surrounding terrain.
+     * @param context The game session the town belongs to.
+     */
+    public Town(Shop shop, double toughness, GameContext context) {
+        this(shop, toughness, context, context.getRandom());
+    }
+
+    /**
+     * Builds a town whose terrain, toughness and treasure are drawn from their own random numbers,
+     * so the same numbers always build the same town (see World).
+     *
+     * @param shop The town's shoppe.
+     * @param toughness The surrounding terrain.
+     * @param context The game session the town belongs to.
+     * @param layout The random numbers the town is drawn from.
+     */
+    public Town(Shop shop, double toughness, GameContext context, SplittableRandom layout) {
+        this.context = context;
+        out = context.getOut();
+        this.shop = shop;
+        this.terrain = getNewTerrain(layout);
+
+        // the hunter gets set using the hunterArrives method, which
+        // gets called from a client class
+        hunter = null;
+
+        printMessage = "";
+
+        // higher toughness = more likely to be a tough town
+        toughTown = (layout.nextDouble() < toughness);
+        searchedForTreasure = false;
+        foundTreasure = Catalog.get().drawTreasure(layout);
+        townId = -1;
+    }
+
+    /**
+     * Builds a town whose shop has prices of its own, which depend on whether the town turns out
+     * to be tough (see Shop.withTownPrices()).
+     *
+     * @param markdown The shop's markdown for selling items.
+     * @param toughness The chance of a tough town.
+     * @param context The game session the town belongs to.
+     * @param layout The random numbers the town is drawn from.
+     * @param prices The random numbers the shop's prices are drawn from.
+     * @return The new town.
+     */
+    public static Town withTownPrices(double markdown, double toughness, GameContext context, SplittableRandom layout,
+                                      SplittableRandom prices) {
+        Town town = new Town(null, toughness, context, layout);
+        town.shop = Shop.withTownPrices(markdown, town.toughTown, prices, context);
+        return town;
+    }
+
+    /**
+     * Builds a town exactly as it was saved.
+     */
+    private Town(Shop shop, Terrain terrain, boolean toughTown, String foundTreasure, boolean searchedForTreasure, GameContext context) {
+        this.context = context;
+        out = context.getOut();
+        this.shop = shop;
+        this.terrain = terrain;
+        this.toughTown = toughTown;
+        this.foundTreasure = foundTreasure;
+        this.searchedForTreasure = searchedForTreasure;
+        hunter = null;
+        printMessage = "";
+        townId = -1;
+    }
+
+    /**
+     * Writes the town to a saved game (see GameSnapshot).
+     *
+     * @param snapshot Where to write.
+     */
+    void writeTo(ByteBuffer snapshot) {
+        GameSnapshot.putText(snapshot, terrain.getTerrainName());
+        snapshot.put((byte) terrain.getNeededItemOrdinal());
+        snapshot.put((byte) ((toughTown ? 1 : 0) | (searchedForTreasure ? 2 : 0)));
+        GameSnapshot.putText(snapshot, foundTreasure);
+        shop.writeTo(snapshot);
+    }
+
+    /**
+     * Reads a town back from a saved game. The hunter still has to arrive.
+     *
+     * @param snapshot Where to read from.
+     * @param context The game session the town belongs to.
+     * @return The town as it was saved.
+     */
+    static Town readFrom(ByteBuffer snapshot, GameContext context) {
+        String name = GameSnapshot.getText(snapshot);
+        int item = snapshot.get();
+        Terrain terrain = Catalog.get().getTerrain(name);
+        if (terrain == null || terrain.getNeededItemOrdinal() != item) {
+            terrain = new Terrain(name, Items.nameOf(item));
+        }
+        int flags = snapshot.get();
+        String treasure = GameSnapshot.getText(snapshot);
+        Shop shop = Shop.readFrom(snapshot, context);
+        return new Town(shop, terrain, (flags & 1) != 0, treasure, (flags & 2) != 0, context);
+    }
+
+    /**
+     * Rebuilds a town from a GameState, sharing its shop's price tables. The hunter still has to
+     * arrive, and then the news can be put back.
+     *
+     * @param state The state to rebuild.
+     * @param context The game session the town belongs to.
+     * @return The town as it was when the state was captured.
+     */
+    static Town restore(GameState state, GameContext context) {
+        Shop shop = new Shop(state.getMarkdown(), state.getBuyPrices(), state.getSellPrices(), context);
+        return new Town(shop, state.getTerrain(), state.isToughTown(), state.getHiddenTreasure(), state.isSearched(), context);
+    }
+
+    public String getLatestNews() {
+        return printMessage;
+    }
+
+    void setLatestNews(String news) {
+        printMessage = news;
+    }
+
+    /**
+     * @return What hunting in this town finds.
+     */
+    String getHiddenTreasure() {
+        return foundTreasure;
+    }
+
+    // accessors
+    public Terrain getTerrain() {
+        return terrain;
+    }
+
+    public boolean isToughTown() {
+        return toughTown;
+    }
+
+    /**
+     * @return true if the town has already been searched for treasure.
+     */
+    public boolean isSearched() {
+        return searchedForTreasure;
+    }
+
+    /**
+     * @return The town's shop.
+     */
+    Shop getShop() {
+        return shop;
+    }
+
+    /**
+     * @return The town's id in its world, or -1 if it isn't part of one.
+     */
+    public int getTownId() {
+        return townId;
+    }
+
+    /**
+     * Makes this the town with the given id in a world, which remembers whether it has been searched.
+     *
+     * @param world The world the town is in.
+     * @param townId The town's id.
+     */
+    void placeInWorld(World world, int townId) {
+        this.world = world;
+        this.townId = townId;
+        searchedForTreasure = world.isSearched(townId);
+    }
+
+    /**
+     * Lets the hunter in this town run into the other hunters in a shared world.
+     *
+     * @param sharedWorld The world the town is in.
+     * @param rival The hunter, as the other hunters see them.
+     */
+    void shareWith(SharedWorld sharedWorld, SharedWorld.Rival rival) {
+        this.sharedWorld = sharedWorld;
+        this.rival = rival;
+    }
+
+    /**
+     * Assigns an object to the Hunter in town.
+     *
+     * @param hunter The arriving Hunter.
+     */
+    public void hunterArrives(Hunter hunter) {
+        printMessage = "";
+        this.hunter = hunter;
+        printMessage = "Welcome to town, " + hunter.getHunterName() + ".";
+
+        if (toughTown) {
+            printMessage += "\nIt's pretty rough around here, so watch yourself.";
+        } else {
+            printMessage += "\nWe're just a sleepy little town with mild mannered folk.";
+        }
+    }
+
+    /**
+     * Handles the action of the Hunter leaving the town.
+     *
+     * @return true if the Hunter was able to leave town.
+     */
+    public boolean leaveTown() {
+        long start = GameMetrics.start();
+        printMessage = "";
+        boolean canLeaveTown = terrain.canCrossTerrain(hunter);
+        if (canLeaveTown) {
+            String item = terrain.getNeededItem();
+            printMessage = "You used your " + item + " to cross the " + terrain.getTerrainName() + ".";
+            if (checkItemBreak() && !context.getEasyMode()) {
+                hunter.removeItemFromKit(terrain.getNeededItemOrdinal());
+                GameEvents.itemBroken(hunter, terrain.getNeededItemOrdinal(), terrain);
+                if (context.getStats() != null) {
+                    context.getStats().itemLost(terrain.getNeededItemOrdinal());
+                }
+                printMessage += "\nUnfortunately, you lost your " + item + ".";
+            }
+            GameMetrics.record(GameMetrics.LEAVE_TOWN, start);
+            return true;
+        }
+
+        printMessage = "You can't leave town, " + hunter.getHunterName() + ". You don't have a " + terrain.getNeededItem() + ".";
+        GameMetrics.record(GameMetrics.LEAVE_TOWN, start);
+        return false;
+    }
+
+    public void huntForTreasure() {
+        long start = GameMetrics.start();
+        printMessage = "";
+        if (searchedForTreasure) {
+            out.println("You have already searched this town.");
+            GameMetrics.record(GameMetrics.HUNT, start);
+            return;
+        }
+        searchedForTreasure = true;
+        if (world != null && !world.claimTreasure(townId)) {
+            // another hunter in a shared world searched the town since this one arrived
+            out.println("Another hunter has already searched this town.");
+            GameMetrics.record(GameMetrics.HUNT, start);
+            return;
+        }
+        if (Catalog.get().isValuable(foundTreasure)) {
+            if (out.isEnabled()) {
+                out.println("You found a " + foundTreasure + "!");
+            }
+            hunter.addTreasure(foundTreasure);
+        } else {
+            if (out.isEnabled()) {
+                out.println("You found " + foundTreasure + ". Nothing special.");
+            }
+        }
+        GameMetrics.record(GameMetrics.HUNT, start);
+    }
+
+
+    /**
+     * Handles calling the enter method on shop whenever the user wants to access the shop.
+     *
+     * @param choice If the user wants to buy or sell items at the shop.
+     */
+    public void enterShop(String choice) {
+        shop.enter(hunter, choice);
+        printMessage = "You left the shop";
+    }
+
+    /**
+     * Buys or sells an item at the shop without any questions.
+     *
+     * @param item The ordinal of the item.
+     * @param isBuying If the hunter is buying the item rather than selling it.
+     */
+    void trade(int item, boolean isBuying) {
+        shop.trade(hunter, item, isBuying);
+        printMessage = "You left the shop";
+    }
+
+    /**
+     * Gives the hunter a chance to fight for some gold.<p>
+     * The chances of finding a fight and winning the gold are based on the toughness of the town.<p>
+     * The tougher the town, the easier it is to find a fight, and the harder it is to win one.
+     */
+    public void lookForTrouble() {
+        long start = GameMetrics.start();
+        printMessage = "";
+        double noTroubleChance;
+        if (toughTown) {
+            noTroubleChance = 0.66;
+        } else {
+            noTroubleChance = 0.33;
+        }
+        SplittableRandom random = context.getRandom();
+        int easyModeWinChance = random.nextInt(10 + 1) - 1;
+
+        if (random.nextDouble() > noTroubleChance) {
+            printMessage = "You couldn't find any trouble";
+        } else {
+            printMessage = Colors.RED + "You want trouble, stranger!  You got it!\nOof! Umph! Ow!\n" + Colors.RESET;
+            int goldDiff = BRAWL_GOLD.sample(random) + 1;
+            SharedWorld.Rival opponent = sharedWorld == null ? null : sharedWorld.findOpponent(rival, random);
+            if (opponent != null) {
+                brawlWithHunter(opponent, goldDiff, random.nextDouble() > noTroubleChance || easyModeWinChance < 8);
+            } else if (hunter.hasItemInKit(Items.SWORD)) {
+                 printMessage += "The brawler, seeing your sword, realizes he picked a losing fight and gives you his gold";
+                 hunter.changeGold(goldDiff);
+                 GameEvents.brawl(hunter, "won", goldDiff);
+             } else if ((random.nextDouble() > noTroubleChance) || easyModeWinChance < 8) {
+                printMessage += "Okay, stranger! You proved yer mettle. Here, take my gold.";
+                printMessage += "\nYou won the brawl and receive " +  Colors.YELLOW + goldDiff + " gold." + Colors.RESET;
+                hunter.changeGold(goldDiff);
+                GameEvents.brawl(hunter, "won", goldDiff);
+             } else {
+                printMessage += Colors.RED + "That'll teach you to go lookin' fer trouble in MY town! Now pay up!" + Colors.RESET;
+                printMessage += "\nYou lost the brawl and pay " + Colors.YELLOW + goldDiff + " gold.";
+                if (goldDiff > hunter.getGold()) {
+                    printMessage += "\nYou couldn't pay up so your opponent murdered you...better luck next time!";
+                    context.setLose(true);
+                    GameEvents.brawl(hunter, "killed", goldDiff);
+                    if (context.getStats() != null) {
+                        context.getStats().killed(toughTown ? GameStats.Cause.BRAWL_IN_TOUGH_TOWN : GameStats.Cause.BRAWL_IN_TOWN,
+                                goldDiff - hunter.getGold());
+                    }
+                } else {
+                    hunter.changeGold(-goldDiff);
+                    GameEvents.brawl(hunter, "lost", goldDiff);
+                }
+            }
+        }
+        GameMetrics.record(GameMetrics.LOOK_FOR_TROUBLE, start);
+    }
+
+    /**
+     * Fights another hunter in a shared world, with the same odds as a brawl with a stranger. <p>
+     * The winner gets the gold at stake from the loser, as much of it as the loser has. When this
+     * hunter wins, the opponent pays up when they next settle (see SharedWorld.claimGold()).
+     *
+     * @param opponent The other hunter.
+     * @param goldDiff The gold at stake.
+     * @param won Whether the hunter wins without a sword.
+     */
+    private void brawlWithHunter(SharedWorld.Rival opponent, int goldDiff, boolean won) {
+        printMessage += "It's " + opponent.getName() + ", another hunter after the same treasure!\n";
+        if (won || hunter.hasItemInKit(Items.SWORD)) {
+            // the gold is paid when the loser next settles up, as much of it as they still have
+            int gold = sharedWorld.claimGold(rival, opponent, goldDiff);
+            if (gold > 0) {
+                printMessage += "You won the brawl, and " + opponent.getName() + " owes you " + Colors.YELLOW + gold + " gold." + Colors.RESET;
+            } else {
+                printMessage += "You won the brawl, but " + opponent.getName() + " has no gold to pay you.";
+            }
+            GameEvents.brawl(hunter, "won", gold);
+        } else if (goldDiff > hunter.getGold()) {
+            printMessage += "You lost the brawl and couldn't pay up, so " + opponent.getName() + " finished you off...better luck next time!";
+            sharedWorld.giveGold(opponent, hunter.getGold());
+            context.setLose(true);
+            GameEvents.brawl(hunter, "killed", goldDiff);
+            if (context.getStats() != null) {
+                context.getStats().killed(GameStats.Cause.BRAWL_WITH_HUNTER, goldDiff - hunter.getGold());
+            }
+        } else {
+            printMessage += "You lost the brawl and pay " + opponent.getName() + " " + Colors.YELLOW + goldDiff + " gold." + Colors.RESET;
+            sharedWorld.giveGold(opponent, goldDiff);
+            hunter.changeGold(-goldDiff);
+            GameEvents.brawl(hunter, "lost", goldDiff);
+        }
+    }
+
+    public void digTreasure(){
+        long start = GameMetrics.start();
+        printMessage = "";
+        int gold = DIG_GOLD.sample(context.getRandom());
+        if (gold > 0){
+            if (out.isEnabled()) {
+                out.println("You dug up " +  Colors.YELLOW + gold + " gold!" + Colors.RESET);
+            }
+            hunter.changeGold(gold);
+        } else{
+            out.println("You dug but only found dirt. ");
+        }
+        GameMetrics.record(GameMetrics.DIG, start);
+    }
+
+    public String toString() {
+        return Colors.CYAN + "This nice little town is surrounded by " + terrain.getTerrainName() + "." + Colors.RESET;
+    }
+
+    /**
+     * Determines the surrounding terrain for a town, and the item needed in order to cross that terrain.
+     *
+     * @param layout The random numbers the town is drawn from.
+     * @return The catalog's Terrain object, shared with every other town it surrounds.
+     */
+    private Terrain getNewTerrain(SplittableRandom layout) {
+        return Catalog.get().drawTerrain(layout);
+    }
+
+    /**
+     * Builds the table of what a dig turns up.
+     *
+     * @param most The most gold a dig can find.
+     * @return The table, where outcome 0 is dirt and outcome g is g gold.
+     */
+    private static AliasTable digGold(int most) {
+        double[] weights = new double[most + 1];
+        // dirt twice as often as gold, which is spread evenly over the amounts
+        weights[0] = 2.0 * most;
+        for (int gold = 1; gold <= most; gold++) {
+            weights[gold] = 1;
+        }
+        return new AliasTable(weights);
+    }
+
+    /**
+     * Determines whether a used item has broken.
+     *
+     * @return true if the item broke.
+     */
+    private boolean checkItemBreak() {
+        double rand = context.getRandom().nextDouble();
+        return (rand < 0.5);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,168 @@
+package treasurehunter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class is responsible for controlling the Treasure Hunter game.<p>
+ * It handles the display of the menu and the processing of the player's choices.<p>
+ * It handles all the display based on the messages it receives from the Town object. <p>
+ *
+ * This code has been adapted from Ivan Turner's original program -- thank you Mr. Turner!
+ */
+
+public class TreasureHunter {
+    // instance variables
+    private GameContext context;
+    private OutputSink out;
+    private GameSession session;
+
+    /**
+     * Constructs the Treasure Hunter game for the person at the console.
+     */
+    public TreasureHunter() {
+        this(consoleContext());
+    }
+
+    /**
+     * Constructs the Treasure Hunter game for the given session.
+     *
+     * @param context The player, output and mode for this game.
+     */
+    public TreasureHunter(GameContext context) {
+        this.context = context;
+        out = context.getOut();
+
+        // this will be initialized in the play method
+        session = null;
+    }
+
+    /**
+     * @return A context for a player typing at the console, buffered and flushed once per turn.
+     */
+    private static GameContext consoleContext() {
+        OutputSink console = TerminalSink.forConsole();
+        GameContext context = new GameContext(new ConsolePlayer(System.in, console), console);
+        context.setTownPrices(Boolean.getBoolean(GameContext.TOWN_PRICES_PROPERTY));
+        return context;
+    }
+
+    /**
+     * Starts the game.<p>
+     * It can be called again once a game is over to start a fresh one in the same session.
+     *
+     * @return How the game ended.
+     */
+    public GameResult play() {
+        String name = welcomePlayer();
+        session = new GameSession(context, name);
+        return showMenu();
+    }
+
+    /**
+     * Plays games until the player doesn't want another one.
+     *
+     * @return How the last game ended.
+     */
+    public GameResult playSession() {
+        GameResult result = play();
+        out.print("Play again (y/n)? ");
+        while (context.getPlayer().playAgain(result)) {
+            result = play();
+            out.print("Play again (y/n)? ");
+        }
+        out.flush();
+        return result;
+    }
+
+    /**
+     * @return The game being played, or null before play() is called.
+     */
+    public GameSession getSession() {
+        return session;
+    }
+
+    /**
+     * Writes a snapshot of the game in progress (see GameSnapshot).
+     *
+     * @param snapshot Where to write; it needs room for GameSnapshot.maxSize() bytes.
+     */
+    public void save(ByteBuffer snapshot) {
+        session.save(snapshot);
+    }
+
+    /**
+     * Replaces the game in progress with a saved one, which then carries on from where it was saved.
+     *
+     * @param snapshot The saved game.
+     * @throws IllegalArgumentException if the snapshot isn't a saved game.
+     */
+    public void load(ByteBuffer snapshot) {
+        session.load(snapshot);
+    }
+
+    /**
+     * Asks the player's name and the mode they want to play.
+     *
+     * @return The hunter's name.
+     */
+    private String welcomePlayer() {
+        out.println("Welcome to " + Colors.YELLOW + "TREASURE HUNTER!" + Colors.RESET);
+        out.println("Going hunting for the big treasure, eh?");
+        out.print("What's your name, Hunter? ");
+        String name = context.getPlayer().chooseName().toLowerCase();
+
+        out.print(Colors.RED + "(h)ard" + Colors.RESET + ", " + Colors.GREEN + "(e)asy" + Colors.RESET + ", or " + Colors.CYAN + "(n)ormal" + Colors.RESET + " mode? ");
+        String hard = context.getPlayer().chooseMode().toLowerCase();
+        context.setMode(hard);
+        return name;
+    }
+
+    /**
+     * Displays the menu and receives the choice from the user.<p>
+     * The choice is played as a turn of the session.<p>
+     * This method will loop until the user chooses to exit, wins, or loses.
+     *
+     * @return How the game ended.
+     */
+    private GameResult showMenu() {
+        out.println();
+        out.println(session.getLatestNews());
+        while (true) {
+            if (out.isEnabled()) {
+                printStatus();
+            }
+            out.flush();
+            String choice = context.getPlayer().chooseAction(session.getHunter(), session.getTown()).toLowerCase();
+            TurnOutcome outcome = session.step(GameAction.parse(choice));
+            GameResult result = outcome.getResult();
+            if (result != null && (result.getOutcome() == GameResult.Outcome.WON
+                    || outcome.getAction() == GameAction.QUIT)) {
+                return result;
+            }
+            out.println();
+            out.println(session.getLatestNews());
+            if (result != null) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Prints the hunter, the town and the menu options.
+     */
+    private void printStatus() {
+        out.println("***");
+        out.println(session.getHunter());
+        out.println(session.getTown());
+        out.println(Colors.RED + "(B)" + Colors.RESET + "uy something at the shop.");
+        out.println(Colors.YELLOW + "(S)" + Colors.RESET + "ell something at the shop.");
+        out.println(Colors.GREEN + "(M)" + Colors.RESET+ "ove on to a different town.");
+        out.println(Colors.CYAN + "(L)" + Colors.RESET + "ook for trouble!");
+        out.println(Colors.BLUE + "(H)" + Colors.RESET + "unt for treasure.");
+        out.println(Colors.WHITE + "(D)" + Colors.RESET + "ig for gold!");
+        out.println("Save the game, or load the last saved one.");
+        out.println("Give up the hunt and e(X)it.");
+        out.println();
+        out.print("What's your next move? ");
+    }
+}
@@ -0,0 +1,47 @@
+package treasurehunter;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+public class TreasureHunterRunner {
+    /**
+     * @param args Optional: the seed to play, a file to record the session to ("-" for none),
+     *             and a world file to travel through (see World).
+     * @throws IOException if the recording or the world can't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            new TreasureHunter().playSession();
+            return;
+        }
+
+        // replaying a seed reproduces the same towns, brawls and treasures
+        long seed = args[0].equals("random") ? new SplittableRandom().nextLong() : Long.parseLong(args[0]);
+        OutputSink console = TerminalSink.forConsole();
+        Player player = new ConsolePlayer(System.in, console);
+        World world = args.length > 2 ? World.open(Paths.get(args[2]), seed, World.DEFAULT_TOWNS) : null;
+        boolean townPrices = Boolean.getBoolean(GameContext.TOWN_PRICES_PROPERTY);
+        try {
+            if (args.length > 1 && !args[1].equals("-")) {
+                try (GameLogWriter log = new GameLogWriter(Paths.get(args[1]), seed, townPrices, world != null)) {
+                    player = new RecordingPlayer(player, log);
+                    play(player, console, seed, world, townPrices);
+                }
+            } else {
+                play(player, console, seed, world, townPrices);
+            }
+        } finally {
+            if (world != null) {
+                world.close();
+            }
+        }
+    }
+
+    private static void play(Player player, OutputSink console, long seed, World world, boolean townPrices) {
+        GameContext context = new GameContext(player, console, seed);
+        context.setWorld(world);
+        context.setTownPrices(townPrices);
+        new TreasureHunter(context).playSession();
+    }
+}
@@ -0,0 +1,78 @@
+package treasurehunter;
+
+/**
+ * The TreasureList class is the treasures a hunter has found, in the order they were found. <p>
+ * A list never changes: adding a treasure makes a new list that shares every earlier treasure
+ * with the old one. So a GameState can keep the hunter's treasures without copying them, and any
+ * number of branches of a game can add different treasures to the same list without seeing each
+ * other's.
+ */
+
+public final class TreasureList {
+    // constants
+    public static final TreasureList EMPTY = new TreasureList(null, null);
+
+    // instance variables
+    private final String treasure;
+    private final TreasureList earlier;
+    private final int size;
+
+    private TreasureList(String treasure, TreasureList earlier) {
+        this.treasure = treasure;
+        this.earlier = earlier;
+        size = earlier == null ? 0 : earlier.size + 1;
+    }
+
+    /**
+     * @param treasure The treasure just found.
+     * @return A list with the treasure after all of these.
+     */
+    public TreasureList add(String treasure) {
+        return new TreasureList(treasure, this);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param treasure A treasure.
+     * @return true if it is in the list.
+     */
+    public boolean contains(String treasure) {
+        for (TreasureList list = this; list.size > 0; list = list.earlier) {
+            if (list.treasure.equals(treasure)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param index Which treasure, in the order they were found.
+     * @return The treasure.
+     * @throws IndexOutOfBoundsException if the list doesn't have that many treasures.
+     */
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("treasure " + index + " of " + size);
+        }
+        TreasureList list = this;
+        for (int steps = size - 1 - index; steps > 0; steps--) {
+            list = list.earlier;
+        }
+        return list.treasure;
+    }
+
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            str.append(i == 0 ? "" : " ").append(get(i));
+        }
+        return str.toString();
+    }
+}
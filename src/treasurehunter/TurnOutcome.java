@@ -0,0 +1,111 @@
+package treasurehunter;
+
+/**
+ * The TurnOutcome class describes what one GameSession.step() did to the hunter. <p>
+ * A session keeps one TurnOutcome and fills it in again on every step, so stepping allocates
+ * nothing; copy out anything that has to outlive the next step.
+ */
+
+public class TurnOutcome {
+    // instance variables
+    private GameAction action;
+    private int goldDelta;
+    private int itemLost;
+    private String treasureFound;
+    private boolean moved;
+    private GameResult result;
+
+    /**
+     * Starts describing a new turn.
+     */
+    void reset(GameAction action) {
+        this.action = action;
+        goldDelta = 0;
+        itemLost = Items.NONE;
+        treasureFound = null;
+        moved = false;
+        result = null;
+    }
+
+    void setGoldDelta(int goldDelta) {
+        this.goldDelta = goldDelta;
+    }
+
+    void setItemLost(int itemLost) {
+        this.itemLost = itemLost;
+    }
+
+    void setTreasureFound(String treasureFound) {
+        this.treasureFound = treasureFound;
+    }
+
+    void setMoved(boolean moved) {
+        this.moved = moved;
+    }
+
+    void setResult(GameResult result) {
+        this.result = result;
+    }
+
+    // accessors
+    public GameAction getAction() {
+        return action;
+    }
+
+    /**
+     * @return How much the hunter's gold went up (or down, if negative) this turn.
+     */
+    public int getGoldDelta() {
+        return goldDelta;
+    }
+
+    /**
+     * @return The item that broke crossing the terrain, or Items.NONE.
+     */
+    public int getItemLost() {
+        return itemLost;
+    }
+
+    /**
+     * @return The treasure added to the hunter's collection, or null.
+     */
+    public String getTreasureFound() {
+        return treasureFound;
+    }
+
+    /**
+     * @return true if the hunter left town and arrived in a new one.
+     */
+    public boolean hasMoved() {
+        return moved;
+    }
+
+    public boolean isGameOver() {
+        return result != null;
+    }
+
+    /**
+     * @return How the game ended, or null if it goes on.
+     */
+    public GameResult getResult() {
+        return result;
+    }
+
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        str.append(action).append(": gold ").append(goldDelta >= 0 ? "+" : "").append(goldDelta);
+        if (moved) {
+            str.append(", moved");
+        }
+        if (itemLost != Items.NONE) {
+            str.append(", lost ").append(Items.nameOf(itemLost));
+        }
+        if (treasureFound != null) {
+            str.append(", found ").append(treasureFound);
+        }
+        if (result != null) {
+            str.append(", ").append(result.getOutcome());
+        }
+        return str.toString();
+    }
+}
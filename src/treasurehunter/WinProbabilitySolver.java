@@ -0,0 +1,801 @@
+package treasurehunter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The WinProbabilitySolver class works out the exact chance of winning, and the expected gold at
+ * the end of the game, for a strategy (see SolverPolicy) and difficulty, without playing any games. <p>
+ * Under a fixed strategy the game is a Markov chain over the states in SolverState, with the
+ * transition probabilities that Town and Shop use: the 0.33/0.66 trouble chances, the 1-10 gold
+ * brawls, the 50% item break, the 1-in-4 treasure draw, the 1-in-3 dig and the terrain weights
+ * of a new town. The solver runs dynamic programming over those states: after k sweeps the
+ * values are exact for a game limited to k turns, and sweeping until nothing changes gives the
+ * values for a game without a turn limit. <p>
+ * States that differ only in gold are kept together in a "block", one value per gold from 0 to
+ * the gold cap, so that an action's outcomes are found by arithmetic instead of being stored:
+ * a brawl or a dig reads a run of neighbouring golds in the same block, and buying or selling
+ * reads one other block at a shifted gold. Only the links between blocks, and which of the
+ * strategy's distinct choices each state makes, are worked out in advance. Outcomes that leave
+ * a state as it was (a failed buy, or hunting a town already searched) are folded into one
+ * chance of staying put. <p>
+ * Moving on always leads to the same twelve kinds of town, so each (kit, treasures) a hunter can
+ * leave with is an "arrival" whose values are worked out once per sweep and shared by every
+ * block that moves there. <p>
+ * Gold above the gold cap is treated as the cap, which is the only approximation. The solution
+ * reports how likely the game is to go over the cap, so a cap is big enough when that is 0. <p>
+ * The states and rules are those of the catalog.txt that comes with the game (see SolverState),
+ * so the solver refuses to run with any other catalog.
+ */
+
+public class WinProbabilitySolver {
+    // constants
+    private static final int DEFAULT_GOLD_CAP = 63;
+    private static final int TOWN_KINDS = SolverState.TERRAINS.length * 2;
+    private static final double CONVERGED = 1e-13;
+    private static final int MAX_SWEEPS = 1000000;
+    private static final int ITEMS = SolverPolicy.SELL - SolverPolicy.BUY;
+
+    // the other blocks each block's actions lead to, at block * LINKS + one of these
+    private static final int SEARCHED = 0;
+    private static final int FOUND = SEARCHED + 1; // plus the treasure
+    private static final int DUG = FOUND + SolverState.TREASURES.length;
+    private static final int KEPT = DUG + 1; // an arrival, keeping the needed item
+    private static final int BROKEN = KEPT + 1; // an arrival, after the needed item broke
+    private static final int BOUGHT = BROKEN + 1; // plus the item
+    private static final int SOLD = BOUGHT + ITEMS; // plus the item
+    private static final int LINKS = SOLD + ITEMS;
+    private static final int NONE = -1;
+    private static final int WON = -2;
+
+    // instance variables
+    private GameContext rules;
+    private Shop shop;
+    private int startGold;
+    private int startKit;
+    private double toughness;
+    private boolean itemsBreak;
+    private int goldCap;
+    private int width;
+
+    // the blocks, each holding width states, and their links
+    private StateIndex blockIndex;
+    private int[] blocks;
+    private int[] links;
+    private int blockCount;
+
+    // the strategy's distinct choices, and which one each state (block * width + gold) makes
+    private List<Rule> choices;
+    private Map<Rule, Integer> choiceIndex;
+    private int[] choiceOf;
+
+    // arrivals in a new town, and the blocks of the towns they lead to
+    private StateIndex arrivalIndex;
+    private int[] arrivalTowns;
+    private int arrivalCount;
+    private double[] townChances;
+
+    // the values being read in this sweep: the chance of winning, the expected gold and the chance of going over the cap
+    private double[] win;
+    private double[] gold;
+    private double[] clipped;
+    private double[] arrivalWin;
+    private double[] arrivalGold;
+    private double[] arrivalClipped;
+
+    // running totals of one block's values for brawls and digs, and which block they are for
+    private double[] sumWin;
+    private double[] sumGold;
+    private double[] sumClipped;
+    private int summed;
+
+    // what one block's states add up to in this sweep
+    private double[] stay;
+    private double[] newWin;
+    private double[] newGold;
+    private double[] newClipped;
+
+    /**
+     * The answer for one strategy.
+     */
+    public static class Solution {
+        private double winProbability;
+        private double expectedGold;
+        private double clippedProbability;
+        private int states;
+        private int sweeps;
+
+        Solution(double winProbability, double expectedGold, double clippedProbability, int states, int sweeps) {
+            this.winProbability = winProbability;
+            this.expectedGold = expectedGold;
+            this.clippedProbability = clippedProbability;
+            this.states = states;
+            this.sweeps = sweeps;
+        }
+
+        public double getWinProbability() {
+            return winProbability;
+        }
+
+        /**
+         * @return The expected gold when the game ends by winning, dying, quitting or reaching the turn limit.
+         */
+        public double getExpectedGold() {
+            return expectedGold;
+        }
+
+        /**
+         * @return The chance that the hunter's gold goes over the gold cap at some point. The
+         * other answers are exact when this is 0, and otherwise can be off by at most this much.
+         */
+        public double getClippedProbability() {
+            return clippedProbability;
+        }
+
+        /**
+         * @return How many states the solver kept a value for.
+         */
+        public int getStates() {
+            return states;
+        }
+
+        public int getSweeps() {
+            return sweeps;
+        }
+
+        public String toString() {
+            return String.format("win probability %.6f, expected gold %.3f, over the gold cap %.2g (%d states, %d sweeps)",
+                    winProbability, expectedGold, clippedProbability, states, sweeps);
+        }
+    }
+
+    /**
+     * One of the strategy's choices: the probability of each action, with the actions it can
+     * take listed separately so that a sweep skips the rest.
+     */
+    private static class Rule {
+        private double[] probabilities;
+        private int[] actions;
+
+        Rule(double[] probabilities) {
+            this.probabilities = probabilities.clone();
+            int count = 0;
+            for (double p : probabilities) {
+                if (p > 0) {
+                    count++;
+                }
+            }
+            actions = new int[count];
+            count = 0;
+            for (int action = 0; action < probabilities.length; action++) {
+                if (probabilities[action] > 0) {
+                    actions[count++] = action;
+                }
+            }
+        }
+
+        public boolean equals(Object other) {
+            return other instanceof Rule && Arrays.equals(probabilities, ((Rule) other).probabilities);
+        }
+
+        public int hashCode() {
+            return Arrays.hashCode(probabilities);
+        }
+    }
+
+    /**
+     * @param mode The difficulty, as answered to the mode prompt ("h", "e", "n", "s" or "test").
+     * @throws IllegalStateException if the game is using a catalog other than the one it comes with.
+     */
+    public WinProbabilitySolver(String mode) {
+        this(mode, DEFAULT_GOLD_CAP);
+    }
+
+    /**
+     * @param mode The difficulty, as answered to the mode prompt ("h", "e", "n", "s" or "test").
+     * @param goldCap The most gold a state keeps track of, at most SolverState.MAX_GOLD. It is
+     *                raised to the starting gold if that is more.
+     * @throws IllegalStateException if the game is using a catalog other than the one it comes with.
+     */
+    public WinProbabilitySolver(String mode, int goldCap) {
+        if (!Catalog.get().isBundled()) {
+            throw new IllegalStateException("The solver only knows the catalog.txt that comes with the game, not "
+                    + System.getProperty(Catalog.PROPERTY));
+        }
+        rules = new GameContext(null, NullSink.INSTANCE, 0);
+        rules.setMode(mode);
+
+        // the same starting conditions as TreasureHunter.welcomePlayer() and enterTown()
+        double markdown = rules.getHardMode() ? 0.25 : 0.50;
+        toughness = rules.getHardMode() ? 0.75 : 0.4;
+        shop = new Shop(markdown, rules);
+        itemsBreak = !rules.getEasyMode();
+        if (rules.getTestMode()) {
+            startGold = 100;
+            startKit = (1 << Items.SWORD) - 1;
+        } else if (rules.getEasyMode()) {
+            startGold = 20;
+        } else {
+            startGold = 10;
+        }
+        this.goldCap = Math.min(Math.max(goldCap, startGold), SolverState.MAX_GOLD);
+        width = this.goldCap + 1;
+    }
+
+    /**
+     * Solves a game without a turn limit.
+     *
+     * @param policy The strategy being played.
+     * @return The chance of eventually winning and the expected final gold.
+     */
+    public Solution solve(SolverPolicy policy) {
+        return solve(policy, 0);
+    }
+
+    /**
+     * Solves a game that ends after the given number of turns, like GameContext.setMaxTurns().
+     *
+     * @param policy The strategy being played.
+     * @param maxTurns The turn limit, or 0 for none.
+     * @return The chance of winning within the limit and the expected final gold.
+     */
+    public Solution solve(SolverPolicy policy, int maxTurns) {
+        explore(policy);
+
+        int size = blockCount * width;
+        win = new double[size];
+        gold = new double[size];
+        clipped = new double[size];
+        for (int i = 0; i < size; i++) {
+            // with no turns left the game stops where it is
+            gold[i] = i % width;
+        }
+        // a turn limit needs every sweep to read only the previous sweep's values;
+        // without one, updating in place converges faster
+        double[] nextWin = maxTurns > 0 ? new double[size] : win;
+        double[] nextGold = maxTurns > 0 ? new double[size] : gold;
+        double[] nextClipped = maxTurns > 0 ? new double[size] : clipped;
+        arrivalWin = new double[arrivalCount * width];
+        arrivalGold = new double[arrivalCount * width];
+        arrivalClipped = new double[arrivalCount * width];
+        sumWin = new double[width + 1];
+        sumGold = new double[width + 1];
+        sumClipped = new double[width + 1];
+        stay = new double[width];
+        newWin = new double[width];
+        newGold = new double[width];
+        newClipped = new double[width];
+
+        int sweeps = 0;
+        boolean done = false;
+        while (!done) {
+            arrive();
+            double change = 0;
+            for (int block = 0; block < blockCount; block++) {
+                sweep(block);
+                int base = block * width;
+                for (int g = 0; g < width; g++) {
+                    int i = base + g;
+                    double w = newWin[g];
+                    double v = newGold[g];
+                    double c = newClipped[g];
+                    if (maxTurns > 0) {
+                        w += stay[g] * win[i];
+                        v += stay[g] * gold[i];
+                        c += stay[g] * clipped[i];
+                    } else if (stay[g] < 1) {
+                        // staying put any number of times before something happens
+                        w /= 1 - stay[g];
+                        v /= 1 - stay[g];
+                        c /= 1 - stay[g];
+                    } else {
+                        // nothing ever happens
+                        w = win[i];
+                        v = gold[i];
+                        c = clipped[i];
+                    }
+                    change = Math.max(change, Math.abs(w - win[i]));
+                    nextWin[i] = w;
+                    nextGold[i] = v;
+                    nextClipped[i] = c;
+                }
+            }
+            if (maxTurns > 0) {
+                double[] swap = win;
+                win = nextWin;
+                nextWin = swap;
+                swap = gold;
+                gold = nextGold;
+                nextGold = swap;
+                swap = clipped;
+                clipped = nextClipped;
+                nextClipped = swap;
+            }
+            sweeps++;
+            done = maxTurns > 0 ? sweeps >= maxTurns : change < CONVERGED || sweeps >= MAX_SWEEPS;
+        }
+
+        // the first town is just another arrival
+        arrive();
+        return new Solution(arrivalWin[startGold], arrivalGold[startGold], arrivalClipped[startGold], size, sweeps);
+    }
+
+    /**
+     * Works out the value of each arrival at each gold from the towns it leads to.
+     */
+    private void arrive() {
+        Arrays.fill(arrivalWin, 0);
+        Arrays.fill(arrivalGold, 0);
+        Arrays.fill(arrivalClipped, 0);
+        for (int a = 0; a < arrivalCount; a++) {
+            int base = a * width;
+            for (int kind = 0; kind < TOWN_KINDS; kind++) {
+                double chance = townChances[kind];
+                int town = arrivalTowns[a * TOWN_KINDS + kind] * width;
+                for (int g = 0; g < width; g++) {
+                    arrivalWin[base + g] += chance * win[town + g];
+                    arrivalGold[base + g] += chance * gold[town + g];
+                    arrivalClipped[base + g] += chance * clipped[town + g];
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds up the outcomes of every state in a block into newWin, newGold and newClipped, and
+     * its chance of staying put into stay, following the rules in Town, Shop and Hunter.
+     */
+    private void sweep(int block) {
+        Arrays.fill(newWin, 0);
+        Arrays.fill(newGold, 0);
+        Arrays.fill(newClipped, 0);
+        Arrays.fill(stay, 0);
+        summed = NONE;
+        int base = block * width;
+        int from = 0;
+        while (from < width) {
+            // the states from here to the next change of choice all act alike
+            int choice = choiceOf[base + from];
+            int to = from + 1;
+            while (to < width && choiceOf[base + to] == choice) {
+                to++;
+            }
+            Rule rule = choices.get(choice);
+            for (int action : rule.actions) {
+                addOutcomes(block, action, rule.probabilities[action], from, to);
+            }
+            from = to;
+        }
+    }
+
+    /**
+     * Adds the outcomes of one action, taken with chance p by the block's states with gold in [from, to).
+     */
+    private void addOutcomes(int block, int action, double p, int from, int to) {
+        int state = blocks[block];
+        int link = block * LINKS;
+        if (action == SolverPolicy.LOOK) {
+            double noTroubleChance = SolverState.isTough(state) ? 0.66 : 0.33;
+            stay(p * (1 - noTroubleChance), from, to);
+            double brawl = p * noTroubleChance / 10;
+            if (SolverState.hasItem(state, Items.SWORD)) {
+                addRange(brawl, block, 1, 10, from, to);
+            } else {
+                // Town.lookForTrouble: lost only if the second roll fails and easyModeWinChance (-1 to 9) is 8 or 9
+                double loseChance = noTroubleChance * 2 / 11;
+                addRange(brawl * (1 - loseChance), block, 1, 10, from, to);
+                addRange(brawl * loseChance, block, -10, -1, from, to);
+            }
+        } else if (action == SolverPolicy.HUNT) {
+            if (SolverState.isSearched(state)) {
+                stay(p, from, to);
+                return;
+            }
+            add(p / 4, win, gold, clipped, links[link + SEARCHED], 0, from, to); // dust
+            for (int treasure = 0; treasure < SolverState.TREASURES.length; treasure++) {
+                int found = links[link + FOUND + treasure];
+                if (found == WON) {
+                    end(p / 4, true, from, to);
+                } else {
+                    add(p / 4, win, gold, clipped, found, 0, from, to);
+                }
+            }
+        } else if (action == SolverPolicy.DIG) {
+            if (SolverState.isDug(state) || !SolverState.hasItem(state, Items.SHOVEL)) {
+                stay(p, from, to);
+                return;
+            }
+            int dug = links[link + DUG];
+            add(p * 2 / 3, win, gold, clipped, dug, 0, from, to);
+            addRange(p / 3 / 19, dug, 1, 19, from, to);
+        } else if (action == SolverPolicy.MOVE) {
+            if (!SolverState.hasItem(state, SolverState.neededItem(state))) {
+                stay(p, from, to);
+            } else if (itemsBreak) {
+                add(p / 2, arrivalWin, arrivalGold, arrivalClipped, links[link + KEPT], 0, from, to);
+                add(p / 2, arrivalWin, arrivalGold, arrivalClipped, links[link + BROKEN], 0, from, to);
+            } else {
+                add(p, arrivalWin, arrivalGold, arrivalClipped, links[link + KEPT], 0, from, to);
+            }
+        } else if (action == SolverPolicy.QUIT) {
+            end(p, false, from, to);
+        } else if (action < SolverPolicy.SELL) {
+            // Shop.enter() and Hunter.buyItem() for a player who always accepts the price
+            int item = action - SolverPolicy.BUY;
+            int bought = links[link + BOUGHT + item];
+            int cost = shop.checkMarketPrice(item, true);
+            if (SolverState.hasItem(state, Items.SWORD) || (item == Items.SWORD && rules.getSamuraiMode())) {
+                if (bought == block) {
+                    stay(p, from, to);
+                } else {
+                    add(p, win, gold, clipped, bought, 0, from, to);
+                }
+            } else if (cost == 0 || SolverState.hasItem(state, item)) {
+                stay(p, from, to);
+            } else {
+                int afford = Math.max(from, Math.min(to, cost));
+                stay(p, from, afford);
+                add(p, win, gold, clipped, bought, -cost, afford, to);
+            }
+        } else {
+            int item = action - SolverPolicy.SELL;
+            int price = shop.checkMarketPrice(item, false);
+            if (price > 0 && SolverState.hasItem(state, item)) {
+                add(p, win, gold, clipped, links[link + SOLD + item], price, from, to);
+            } else {
+                stay(p, from, to);
+            }
+        }
+    }
+
+    /**
+     * Adds chance p of going to gold g + shift in the target block (or arrival) of the given
+     * values, for each gold g in [from, to). Gold over the cap counts as the cap.
+     */
+    private void add(double p, double[] targetWin, double[] targetGold, double[] targetClipped,
+                     int target, int shift, int from, int to) {
+        int base = target * width + shift;
+        int end = Math.max(from, Math.min(to, width - shift));
+        for (int g = from; g < end; g++) {
+            newWin[g] += p * targetWin[base + g];
+            newGold[g] += p * targetGold[base + g];
+            newClipped[g] += p * targetClipped[base + g];
+        }
+        int cap = target * width + goldCap;
+        for (int g = end; g < to; g++) {
+            newWin[g] += p * targetWin[cap];
+            newGold[g] += p * targetGold[cap];
+            newClipped[g] += p;
+        }
+    }
+
+    /**
+     * Adds chance p of each of gold g + low to g + high in the target block, for each gold g in
+     * [from, to). Gold over the cap counts as the cap, and gold below 0 ends the game with the
+     * gold held before, as losing a brawl with too little gold does.
+     */
+    private void addRange(double p, int target, int low, int high, int from, int to) {
+        int base = target * width;
+        if (target != summed) {
+            sumWin[0] = 0;
+            sumGold[0] = 0;
+            sumClipped[0] = 0;
+            for (int g = 0; g < width; g++) {
+                sumWin[g + 1] = sumWin[g] + win[base + g];
+                sumGold[g + 1] = sumGold[g] + gold[base + g];
+                sumClipped[g + 1] = sumClipped[g] + clipped[base + g];
+            }
+            summed = target;
+        }
+        // golds whose whole range lies within 0 and the cap, and those at either end
+        int middle = Math.min(to, Math.max(from, -low));
+        int end = Math.max(middle, Math.min(to, goldCap - high + 1));
+        for (int g = from; g < middle; g++) {
+            addClamped(p, base, g + low, g + high, g);
+        }
+        for (int g = middle; g < end; g++) {
+            newWin[g] += p * (sumWin[g + high + 1] - sumWin[g + low]);
+            newGold[g] += p * (sumGold[g + high + 1] - sumGold[g + low]);
+            newClipped[g] += p * (sumClipped[g + high + 1] - sumClipped[g + low]);
+        }
+        for (int g = end; g < to; g++) {
+            addClamped(p, base, g + low, g + high, g);
+        }
+    }
+
+    /**
+     * Adds chance p of each of gold first to last in the block at base, for a state with gold g,
+     * where the range runs below 0 or over the cap.
+     */
+    private void addClamped(double p, int base, int first, int last, int g) {
+        int under = Math.max(-first, 0);
+        int over = Math.max(last - goldCap, 0);
+        first = Math.max(first, 0);
+        last = Math.min(last, goldCap);
+        double w = 0;
+        double v = 0;
+        double c = 0;
+        if (first <= last) {
+            w = sumWin[last + 1] - sumWin[first];
+            v = sumGold[last + 1] - sumGold[first];
+            c = sumClipped[last + 1] - sumClipped[first];
+        }
+        if (over > 0) {
+            w += over * win[base + goldCap];
+            v += over * gold[base + goldCap];
+            c += over;
+        }
+        newWin[g] += p * w;
+        newGold[g] += p * (v + under * g);
+        newClipped[g] += p * c;
+    }
+
+    /**
+     * Adds chance p of the game ending, won or not, with the gold held.
+     */
+    private void end(double p, boolean won, int from, int to) {
+        for (int g = from; g < to; g++) {
+            if (won) {
+                newWin[g] += p;
+            }
+            newGold[g] += p * g;
+        }
+    }
+
+    private void stay(double p, int from, int to) {
+        for (int g = from; g < to; g++) {
+            stay[g] += p;
+        }
+    }
+
+    /**
+     * Finds every block the strategy can reach from the start of the game, the choice each of
+     * its states makes, and the blocks each choice leads to.
+     */
+    private void explore(SolverPolicy policy) {
+        blockIndex = new StateIndex();
+        blocks = new int[256];
+        links = new int[256 * LINKS];
+        blockCount = 0;
+        choices = new ArrayList<>();
+        choiceIndex = new HashMap<>();
+        choiceOf = new int[256 * width];
+        arrivalIndex = new StateIndex();
+        arrivalTowns = new int[TOWN_KINDS * 64];
+        arrivalCount = 0;
+        townChances = new double[TOWN_KINDS];
+        for (int terrain = 0; terrain < SolverState.TERRAINS.length; terrain++) {
+            townChances[terrain * 2] = SolverState.TERRAIN_CHANCES[terrain] * toughness;
+            townChances[terrain * 2 + 1] = SolverState.TERRAIN_CHANCES[terrain] * (1 - toughness);
+        }
+
+        arrivalOf(startKit, 0);
+
+        double[] actions = new double[SolverPolicy.ACTIONS];
+        Rule last = null;
+        int lastIndex = -1;
+        for (int block = 0; block < blockCount; block++) {
+            for (int g = 0; g < width; g++) {
+                Arrays.fill(actions, 0);
+                policy.choose(blocks[block] | g, actions);
+                if (last == null || !Arrays.equals(actions, last.probabilities)) {
+                    last = new Rule(actions);
+                    Integer known = choiceIndex.get(last);
+                    if (known == null) {
+                        known = choices.size();
+                        choices.add(last);
+                        choiceIndex.put(last, known);
+                    }
+                    lastIndex = known;
+                    for (int action : last.actions) {
+                        link(block, action);
+                    }
+                }
+                choiceOf[block * width + g] = lastIndex;
+            }
+            // the next block starts afresh, as its links are still to be made
+            last = null;
+        }
+        renumber();
+    }
+
+    /**
+     * Puts the blocks in the order of their packed states. That keeps blocks differing only in
+     * their kit next to each other, so buying and selling, the most common outcomes, read
+     * blocks that are close together.
+     */
+    private void renumber() {
+        int[] sorted = Arrays.copyOf(blocks, blockCount);
+        Arrays.sort(sorted);
+        int[] renumbered = new int[blockCount];
+        for (int block = 0; block < blockCount; block++) {
+            renumbered[block] = Arrays.binarySearch(sorted, blocks[block]);
+        }
+
+        int[] sortedLinks = new int[blockCount * LINKS];
+        int[] sortedChoices = new int[blockCount * width];
+        for (int block = 0; block < blockCount; block++) {
+            int to = renumbered[block];
+            for (int link = 0; link < LINKS; link++) {
+                int target = links[block * LINKS + link];
+                boolean toArrival = link == KEPT || link == BROKEN;
+                sortedLinks[to * LINKS + link] = target < 0 || toArrival ? target : renumbered[target];
+            }
+            System.arraycopy(choiceOf, block * width, sortedChoices, to * width, width);
+        }
+        for (int town = 0; town < arrivalCount * TOWN_KINDS; town++) {
+            arrivalTowns[town] = renumbered[arrivalTowns[town]];
+        }
+        blocks = sorted;
+        links = sortedLinks;
+        choiceOf = sortedChoices;
+        blockIndex = null;
+    }
+
+    /**
+     * Makes the links from a block that an action needs.
+     */
+    private void link(int block, int action) {
+        int state = blocks[block];
+        int kit = SolverState.kit(state);
+        int first = block * LINKS;
+        if (action == SolverPolicy.HUNT && !SolverState.isSearched(state) && links[first + SEARCHED] == NONE) {
+            int searched = SolverState.withSearched(state);
+            int index = blockOf(searched);
+            links[first + SEARCHED] = index;
+            for (int treasure = 0; treasure < SolverState.TREASURES.length; treasure++) {
+                int found = SolverState.treasures(state) | 1 << treasure;
+                index = found == SolverState.ALL_TREASURES ? WON : blockOf(SolverState.withTreasures(searched, found));
+                links[first + FOUND + treasure] = index;
+            }
+        } else if (action == SolverPolicy.DIG && !SolverState.isDug(state) && SolverState.hasItem(state, Items.SHOVEL)
+                && links[first + DUG] == NONE) {
+            int index = blockOf(SolverState.withDug(state));
+            links[first + DUG] = index;
+        } else if (action == SolverPolicy.MOVE && SolverState.hasItem(state, SolverState.neededItem(state))
+                && links[first + KEPT] == NONE) {
+            int needed = SolverState.neededItem(state);
+            int treasures = SolverState.treasures(state);
+            int index = arrivalOf(kit, treasures);
+            links[first + KEPT] = index;
+            if (itemsBreak) {
+                index = arrivalOf(kit & ~(1 << needed), treasures);
+                links[first + BROKEN] = index;
+            }
+        } else if (action >= SolverPolicy.BUY && action < SolverPolicy.SELL) {
+            int item = action - SolverPolicy.BUY;
+            if (links[first + BOUGHT + item] == NONE) {
+                int index = blockOf(SolverState.withKit(state, kit | 1 << item));
+                links[first + BOUGHT + item] = index;
+            }
+        } else if (action >= SolverPolicy.SELL) {
+            int item = action - SolverPolicy.SELL;
+            if (links[first + SOLD + item] == NONE) {
+                int index = blockOf(SolverState.withKit(state, kit & ~(1 << item)));
+                links[first + SOLD + item] = index;
+            }
+        }
+    }
+
+    /**
+     * @return The index of the arrival, numbering it and the towns it leads to if it hasn't been seen yet.
+     */
+    private int arrivalOf(int kit, int treasures) {
+        int key = SolverState.encode(0, kit, treasures, 0, false, false, false);
+        int arrival = arrivalIndex.get(key);
+        if (arrival >= 0) {
+            return arrival;
+        }
+        arrival = arrivalCount++;
+        arrivalIndex.put(key, arrival);
+        if (arrivalTowns.length < arrivalCount * TOWN_KINDS) {
+            arrivalTowns = Arrays.copyOf(arrivalTowns, arrivalTowns.length * 2);
+        }
+        for (int terrain = 0; terrain < SolverState.TERRAINS.length; terrain++) {
+            int first = arrival * TOWN_KINDS + terrain * 2;
+            int tough = blockOf(SolverState.encode(0, kit, treasures, terrain, true, false, false));
+            int mild = blockOf(SolverState.encode(0, kit, treasures, terrain, false, false, false));
+            arrivalTowns[first] = tough;
+            arrivalTowns[first + 1] = mild;
+        }
+        return arrival;
+    }
+
+    /**
+     * @return The index of the block of a state with no gold, numbering it if it hasn't been seen yet.
+     */
+    private int blockOf(int state) {
+        int block = blockIndex.get(state);
+        if (block >= 0) {
+            return block;
+        }
+        if (blockCount == blocks.length) {
+            int size = blockCount * 2;
+            blocks = Arrays.copyOf(blocks, size);
+            links = Arrays.copyOf(links, size * LINKS);
+            choiceOf = Arrays.copyOf(choiceOf, size * width);
+        }
+        blocks[blockCount] = state;
+        Arrays.fill(links, blockCount * LINKS, (blockCount + 1) * LINKS, NONE);
+        blockIndex.put(state, blockCount);
+        return blockCount++;
+    }
+
+    /**
+     * An open-addressing map from packed state to index, so that looking a state up doesn't box it.
+     */
+    private static class StateIndex {
+        private int[] keys = new int[4096];
+        private int[] values = new int[4096];
+        private int size;
+
+        StateIndex() {
+            Arrays.fill(keys, -1);
+        }
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; keys[slot] != -1; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return -1;
+        }
+
+        void put(int key, int value) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != -1) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(keys, -1);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != -1) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Solves one strategy and prints the answer.
+     *
+     * @param args Optional: mode, turn limit (0 for none), strategy ("random" or "cautious") and gold cap.
+     */
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "n";
+        int maxTurns = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        String strategy = args.length > 2 ? args[2] : "random";
+        int goldCap = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_GOLD_CAP;
+        SolverPolicy policy = strategy.equals("cautious") ? SolverPolicy.CAUTIOUS : SolverPolicy.RANDOM;
+
+        long start = System.nanoTime();
+        Solution solution = new WinProbabilitySolver(mode, goldCap).solve(policy, maxTurns);
+        double millis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("%s, mode %s, %s: %s in %.1f ms%n",
+                strategy, mode, maxTurns == 0 ? "no turn limit" : maxTurns + " turns", solution, millis);
+    }
+}
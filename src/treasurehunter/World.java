@@ -0,0 +1,272 @@
+package treasurehunter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * The World class is a map of towns that stays put, so a hunter can travel back to a town they
+ * have already visited. <p>
+ * Towns have stable ids from 0 to getTownCount() - 1 and are joined by ROADS roads each: to the
+ * next town, to the previous town, and one long road to a town picked by the world's seed.
+ * Nothing about a town is kept in memory; its terrain, toughness, treasure and shop prices are
+ * worked out from the world's seed and the town's id whenever the town is entered, so a world with
+ * millions of towns costs no more heap than a world with one. <p>
+ * What hunters have done to a town (visited it, searched it, dug in it) is kept in a file of
+ * fixed-width records, one per town, that is memory-mapped so the operating system pages it in
+ * as towns are visited. Opening the file again restores the world exactly as it was left. <p>
+ * The records are updated with compare-and-set, so hunters on different threads can share a
+ * world (see SharedWorld): claimTreasure() and claimDig() succeed for exactly one of them.
+ * <pre>
+ * header: int MAGIC, byte VERSION, 3 bytes padding, long seed, int towns, 12 bytes padding
+ * record: int flags (VISITED, SEARCHED, DUG), int visits
+ * </pre>
+ */
+
+public class World implements Closeable {
+    // constants
+    public static final int MAGIC = 0x54485744;
+    // version 2 worlds draw their towns from alias tables (see AliasTable); version 1 worlds were drawn differently
+    public static final byte VERSION = 2;
+    public static final int ROADS = 3;
+    public static final int DEFAULT_TOWNS = 1 << 20;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 8;
+    static final int MAX_TOWNS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+    private static final int VISITED = 1;
+    private static final int SEARCHED = 2;
+    private static final int DUG = 4;
+
+    // atomic access to the ints in the mapped records
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    // instance variables
+    private FileChannel channel;
+    private MappedByteBuffer records;
+    private long seed;
+    private int towns;
+
+    /**
+     * Opens a world file, creating the world if the file doesn't exist yet. <p>
+     * An existing world keeps the seed and size it was created with.
+     *
+     * @param file The world file.
+     * @param seed The seed for a new world's towns and roads.
+     * @param towns How many towns a new world has.
+     * @return The world.
+     * @throws IOException if the file can't be opened or isn't a world file.
+     */
+    public static World open(Path file, long seed, int towns) throws IOException {
+        if (towns < 1 || towns > MAX_TOWNS) {
+            throw new IllegalArgumentException("A world has between 1 and " + MAX_TOWNS + " towns");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.size() == 0) {
+                header.putInt(MAGIC).put(VERSION).position(8);
+                header.putLong(seed).putInt(towns).clear();
+                channel.write(header, 0);
+            } else {
+                if (channel.read(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC) {
+                    throw new IOException("Not a Treasure Hunter world: " + file);
+                }
+                if (header.get(4) != VERSION) {
+                    throw new IOException("Unsupported world version " + header.get(4));
+                }
+                seed = header.getLong(8);
+                towns = header.getInt(16);
+            }
+            // mapping past the end grows the file; the records nobody has visited stay sparse
+            MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) towns * RECORD_SIZE);
+            return new World(channel, records, seed, towns);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private World(FileChannel channel, MappedByteBuffer records, long seed, int towns) {
+        this.channel = channel;
+        this.records = records;
+        this.seed = seed;
+        this.towns = towns;
+    }
+
+    // accessors
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getTownCount() {
+        return towns;
+    }
+
+    /**
+     * @return The town every game in this world starts in.
+     */
+    public int getStartTown() {
+        return 0;
+    }
+
+    /**
+     * Follows a road out of a town.
+     *
+     * @param town The id of the town.
+     * @param road Which road, from 0 to ROADS - 1.
+     * @return The id of the town at the other end.
+     */
+    public int road(int town, int road) {
+        if (road == 0) {
+            return town + 1 == towns ? 0 : town + 1;
+        } else if (road == 1) {
+            return town == 0 ? towns - 1 : town - 1;
+        }
+        return (int) Long.remainderUnsigned(mix(seed ^ mix(town + 0x9E3779B97F4A7C15L * road)), towns);
+    }
+
+    /**
+     * Builds a town as it is in this world. The same id always gives the same terrain, toughness,
+     * treasure and prices, with the town remembering whether it has been searched.
+     *
+     * @param town The id of the town.
+     * @param markdown The shop's markdown for the game's mode.
+     * @param toughness The game's chance of a tough town.
+     * @param context The game entering the town.
+     * @return The town.
+     */
+    public Town townAt(int town, double markdown, double toughness, GameContext context) {
+        SplittableRandom layout = new SplittableRandom(mix(seed + town));
+        SplittableRandom prices = layout.split();
+        Town result;
+        if (context.getTownPrices()) {
+            result = Town.withTownPrices(markdown, toughness, context, layout, prices);
+        } else {
+            result = new Town(new Shop(markdown, context), toughness, context, layout);
+        }
+        result.placeInWorld(this, town);
+        return result;
+    }
+
+    public boolean isVisited(int town) {
+        return (flags(town) & VISITED) != 0;
+    }
+
+    public boolean isSearched(int town) {
+        return (flags(town) & SEARCHED) != 0;
+    }
+
+    public boolean isDug(int town) {
+        return (flags(town) & DUG) != 0;
+    }
+
+    /**
+     * @param town The id of the town.
+     * @return How many times hunters have entered the town.
+     */
+    public int getVisits(int town) {
+        return (int) INTS.getVolatile(records, offset(town) + 4);
+    }
+
+    /**
+     * Records a hunter entering the town.
+     *
+     * @param town The id of the town.
+     */
+    public void markVisited(int town) {
+        int offset = offset(town);
+        setFlag(town, VISITED);
+        INTS.getAndAdd(records, offset + 4, 1);
+    }
+
+    public void markSearched(int town) {
+        setFlag(town, SEARCHED);
+    }
+
+    public void markDug(int town) {
+        setFlag(town, DUG);
+    }
+
+    /**
+     * Searches a town for its treasure, first come first served.
+     *
+     * @param town The id of the town.
+     * @return true if nobody had searched the town yet; the treasure is this hunter's.
+     */
+    public boolean claimTreasure(int town) {
+        return setFlag(town, SEARCHED);
+    }
+
+    /**
+     * Digs in a town, first come first served.
+     *
+     * @param town The id of the town.
+     * @return true if nobody had dug in the town yet.
+     */
+    public boolean claimDig(int town) {
+        return setFlag(town, DUG);
+    }
+
+    /**
+     * Writes the records that have changed out to the file.
+     */
+    public void force() {
+        records.force();
+    }
+
+    /**
+     * Saves the world and closes the file.
+     *
+     * @throws IOException if the file can't be closed.
+     */
+    public void close() throws IOException {
+        records.force();
+        channel.close();
+    }
+
+    private int flags(int town) {
+        return (int) INTS.getVolatile(records, offset(town));
+    }
+
+    /**
+     * Sets a flag with compare-and-set.
+     *
+     * @return true if this call set it, false if it was already set.
+     */
+    private boolean setFlag(int town, int flag) {
+        int offset = offset(town);
+        int flags = (int) INTS.getVolatile(records, offset);
+        while ((flags & flag) == 0) {
+            int witness = (int) INTS.compareAndExchange(records, offset, flags, flags | flag);
+            if (witness == flags) {
+                return true;
+            }
+            flags = witness;
+        }
+        return false;
+    }
+
+    private int offset(int town) {
+        if (town < 0 || town >= towns) {
+            throw new IndexOutOfBoundsException("No town " + town + " in a world of " + towns);
+        }
+        return HEADER_SIZE + town * RECORD_SIZE;
+    }
+
+    /**
+     * Scrambles a number so that nearby ids give unrelated towns.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}